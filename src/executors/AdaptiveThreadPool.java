@@ -0,0 +1,285 @@
+package executors;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * ThreadPoolExecutor that resizes itself. beforeExecute/afterExecute sample
+ * queue wait, wall-clock service time and CPU time per task; every interval
+ * the controller applies Little's law (threads needed = arrival rate x service
+ * time), capped by the blocking-coefficient bound cores x (1 + wait/compute)
+ * so CPU-bound mixes don't get more threads than cores can feed. Changes go
+ * through hysteresis: the target has to sit outside a 10% dead band for two
+ * consecutive samples, and each step closes at most half the gap. An interval
+ * in which every worker stayed busy, nothing completed and work is queued
+ * counts as saturation, with the interval as a lower bound on service time.
+ */
+public class AdaptiveThreadPool extends ThreadPoolExecutor {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final int maxStep;
+    private final double headroom;
+    private final int cores = Runtime.getRuntime().availableProcessors();
+
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder completions = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final ThreadLocal<long[]> taskStart = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final ScheduledExecutorService controller;
+    private ScheduledFuture<?> controlTask;
+    private long lastSampleNanos = System.nanoTime();
+    private int direction;
+    private int agreeing;
+    private double lastServiceSeconds;
+    private volatile Sample lastSample;
+
+    public AdaptiveThreadPool(int minThreads, int maxThreads) {
+        this(minThreads, maxThreads, 8, 0.2, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "AdaptiveWorker-" + threadCount.incrementAndGet());
+            }
+        });
+    }
+
+    public AdaptiveThreadPool(int minThreads, int maxThreads, int maxStep, double headroom,
+                              ThreadFactory threadFactory) {
+        super(minThreads, minThreads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Invalid bounds: " + minThreads + ".." + maxThreads);
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.maxStep = maxStep;
+        this.headroom = headroom;
+        this.controller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AdaptiveController");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void startController(long interval, TimeUnit unit) {
+        if (controlTask == null) {
+            lastSampleNanos = System.nanoTime();
+            controlTask = controller.scheduleAtFixedRate(this::adjust, interval, interval, unit);
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        arrivals.increment();
+        super.execute(command instanceof Timed ? command : new TimedRunnable(command));
+    }
+
+    // execute() queues a TimedRunnable around the caller's command, so look for that wrapper too
+    @Override
+    public boolean remove(Runnable task) {
+        if (super.remove(task)) {
+            return true;
+        }
+        for (Runnable queued : getQueue()) {
+            if (queued instanceof TimedRunnable && ((TimedRunnable) queued).delegate == task) {
+                return super.remove(queued);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new TimedTask<>(runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new TimedTask<>(callable);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        long now = System.nanoTime();
+        queueWaitNanos.add(now - ((Timed) r).createdNanos());
+        long[] start = taskStart.get();
+        start[0] = now;
+        start[1] = THREADS.getCurrentThreadCpuTime();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        long[] start = taskStart.get();
+        serviceNanos.add(System.nanoTime() - start[0]);
+        cpuNanos.add(THREADS.getCurrentThreadCpuTime() - start[1]);
+        completions.increment();
+        super.afterExecute(r, t);
+    }
+
+    synchronized void adjust() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSampleNanos) / 1e9;
+        lastSampleNanos = now;
+
+        long arrived = arrivals.sumThenReset();
+        long completed = completions.sumThenReset();
+        long service = serviceNanos.sumThenReset();
+        long cpu = cpuNanos.sumThenReset();
+        long wait = queueWaitNanos.sumThenReset();
+        int current = getMaximumPoolSize();
+        int queued = getQueue().size();
+
+        double arrivalRate = arrived / seconds;
+        double serviceTime;
+        double blocking;
+        double cpuBound;
+        int stuck = 0;
+        if (completed > 0) {
+            serviceTime = (double) service / completed / 1e9;
+            blocking = cpu > 0 ? Math.max(0, (double) (service - cpu) / cpu) : 0;
+            cpuBound = cores * (1 + blocking);
+            lastServiceSeconds = serviceTime;
+        } else if (queued > 0 && getActiveCount() >= current) {
+            // Saturated and stalled: every worker spent the whole interval on a task that hasn't finished, so
+            // those workers stay taken and service time is at least the interval. With no CPU sample the
+            // blocking bound is left out
+            stuck = current;
+            serviceTime = Math.max(lastServiceSeconds, seconds);
+            blocking = 0;
+            cpuBound = Double.MAX_VALUE;
+        } else {
+            lastSample = new Sample(arrivalRate, 0, 0, 0, queued, current, current);
+            return;
+        }
+        // Little's law, plus enough extra concurrency to drain the current backlog within one interval
+        double demand = stuck + arrivalRate * serviceTime * (1 + headroom) + queued * serviceTime / seconds;
+        int target = (int) Math.ceil(Math.min(demand, cpuBound));
+        target = Math.max(minThreads, Math.min(maxThreads, target));
+
+        // Hysteresis: only move once two consecutive samples agree on the direction, then close
+        // half the gap per sample so a noisy estimate can't swing the pool from one bound to the other
+        int gap = target - current;
+        int deadBand = Math.max(1, current / 10);
+        int wanted = Math.abs(gap) >= deadBand ? Integer.signum(gap) : 0;
+        agreeing = wanted != 0 && wanted == direction ? agreeing + 1 : 1;
+        direction = wanted;
+        int next = current;
+        if (wanted != 0 && agreeing >= 2) {
+            next = current + wanted * Math.min(maxStep, Math.max(1, Math.abs(gap) / 2));
+            resize(next);
+        }
+
+        lastSample = new Sample(arrivalRate, serviceTime * 1e3, completed > 0 ? (double) wait / completed / 1e6 : 0,
+                blocking, getQueue().size(), target, next);
+    }
+
+    private void resize(int threads) {
+        // Max must never drop below core, so order the two calls by direction
+        if (threads > getMaximumPoolSize()) {
+            setMaximumPoolSize(threads);
+            setCorePoolSize(threads);
+        } else {
+            setCorePoolSize(threads);
+            setMaximumPoolSize(threads);
+        }
+    }
+
+    public Sample lastSample() {
+        return lastSample;
+    }
+
+    @Override
+    protected void terminated() {
+        controller.shutdownNow();
+        super.terminated();
+    }
+
+    public static final class Sample {
+        public final double arrivalRate;
+        public final double serviceMillis;
+        public final double queueWaitMillis;
+        public final double blockingRatio;
+        public final int queueSize;
+        public final int target;
+        public final int poolSize;
+
+        Sample(double arrivalRate, double serviceMillis, double queueWaitMillis, double blockingRatio,
+               int queueSize, int target, int poolSize) {
+            this.arrivalRate = arrivalRate;
+            this.serviceMillis = serviceMillis;
+            this.queueWaitMillis = queueWaitMillis;
+            this.blockingRatio = blockingRatio;
+            this.queueSize = queueSize;
+            this.target = target;
+            this.poolSize = poolSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("arrivals=%6.0f/s service=%6.2fms wait=%8.2fms blocking=%5.1f queue=%5d target=%3d pool=%3d",
+                    arrivalRate, serviceMillis, queueWaitMillis, blockingRatio, queueSize, target, poolSize);
+        }
+    }
+
+    interface Timed {
+        long createdNanos();
+    }
+
+    static final class TimedTask<V> extends FutureTask<V> implements Timed {
+        private final long createdNanos = System.nanoTime();
+
+        TimedTask(Callable<V> callable) {
+            super(callable);
+        }
+
+        TimedTask(Runnable runnable, V result) {
+            super(runnable, result);
+        }
+
+        @Override
+        public long createdNanos() {
+            return createdNanos;
+        }
+    }
+
+    static final class TimedRunnable implements Runnable, Timed {
+        private final long createdNanos = System.nanoTime();
+        private final Runnable delegate;
+
+        TimedRunnable(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+
+        @Override
+        public long createdNanos() {
+            return createdNanos;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package executors;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class AdaptiveThreadPoolBenchmark {
+
+    // One workload phase: open-loop arrival rate, blocking time and CPU time per task
+    static final class Phase {
+        final String name;
+        final int rate;
+        final long blockMicros;
+        final long cpuMicros;
+
+        Phase(String name, int rate, long blockMicros, long cpuMicros) {
+            this.name = name;
+            this.rate = rate;
+            this.blockMicros = blockMicros;
+            this.cpuMicros = cpuMicros;
+        }
+    }
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Adaptive Thread Pool Benchmark ===\n");
+
+        int phaseSeconds = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Phase[] phases = {
+                new Phase("I/O-bound", 400, 20_000, 50),
+                new Phase("CPU-bound", 250 * cores, 0, 2_000),
+                new Phase("mixed", 300, 5_000, 1_000),
+                new Phase("I/O-bound", 400, 20_000, 50)
+        };
+        System.out.println(cores + " cores, " + phaseSeconds + " s per phase, controller every 500 ms\n");
+
+        System.out.println("1. Adaptive pool (1..64 threads) converging per phase:");
+        AdaptiveThreadPool adaptive = new AdaptiveThreadPool(1, 64);
+        adaptive.startController(500, TimeUnit.MILLISECONDS);
+        run(adaptive, phases, phaseSeconds, true);
+        System.out.println();
+
+        System.out.println("2. Hard-coded pool (core 2, max 4, like demoCustomThreadPool) for comparison:");
+        ThreadPoolExecutor fixed = new ThreadPoolExecutor(2, 4, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        run(fixed, phases, phaseSeconds, false);
+        System.out.println("   (with an unbounded queue the extra threads up to max are never created; once the first");
+        System.out.println("   phase builds a backlog, later phases only drain earlier tasks)");
+        System.out.println();
+
+        System.out.println("Adaptive thread pool benchmark completed!");
+    }
+
+    static void run(ThreadPoolExecutor executor, Phase[] phases, int phaseSeconds, boolean trace)
+            throws InterruptedException {
+        System.out.printf("   %-10s %10s %10s %12s %12s %8s %8s%n", "phase", "offered", "completed", "mean wait", "p99 wait", "threads", "backlog");
+        for (Phase phase : phases) {
+            if (trace) {
+                System.out.println("   -- " + phase.name + " (" + phase.rate + "/s, block " + phase.blockMicros
+                        + " μs, cpu " + phase.cpuMicros + " μs)");
+            }
+            LatencyHistogram wait = new LatencyHistogram();
+            LongAdder completed = new LongAdder();
+            long blockNanos = TimeUnit.MICROSECONDS.toNanos(phase.blockMicros);
+            long cpuNanos = TimeUnit.MICROSECONDS.toNanos(phase.cpuMicros);
+
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(phaseSeconds);
+            long submitted = 0;
+            AdaptiveThreadPool.Sample printed = null;
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= end) {
+                    break;
+                }
+                long due = (now - start) * phase.rate / 1_000_000_000L;
+                while (submitted < due) {
+                    submitted++;
+                    long enqueued = System.nanoTime();
+                    try {
+                        executor.execute(() -> {
+                            wait.record(System.nanoTime() - enqueued);
+                            spin(cpuNanos);
+                            if (blockNanos > 0) {
+                                LockSupport.parkNanos(blockNanos);
+                            }
+                            completed.increment();
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // unbounded queue; only happens on shutdown
+                    }
+                }
+                if (trace) {
+                    AdaptiveThreadPool.Sample sample = ((AdaptiveThreadPool) executor).lastSample();
+                    if (sample != null && sample != printed) {
+                        printed = sample;
+                        System.out.println("      " + sample);
+                    }
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            System.out.printf("   %-10s %10d %10d %9.2f ms %9.2f ms %8d %8d%n", phase.name, submitted, completed.sum(),
+                    wait.mean() / 1e6, wait.percentile(99) / 1e6, executor.getPoolSize(), executor.getQueue().size());
+        }
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        long x = 0;
+        while (System.nanoTime() < end) {
+            x++;
+        }
+        sink = x;
+    }
+}
@@ -0,0 +1,395 @@
+package executors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/*
+ * Bounded cache of CompletableFutures with single-flight loading: concurrent
+ * misses for a key all receive the one future created inside
+ * ConcurrentHashMap.computeIfAbsent, so the loader runs once per key no matter
+ * how many callers arrive while it is in flight. A failed load is dropped so
+ * the next caller retries.
+ *
+ * Eviction is W-TinyLFU: new entries enter a small LRU window (1% of the
+ * capacity); entries pushed out of the window must beat the main region's
+ * LRU victim on estimated frequency, taken from a 4-bit count-min sketch that
+ * halves itself periodically, or they are the ones evicted. The main region
+ * is a segmented LRU (probation, then protected once hit again). Policy
+ * bookkeeping happens under one lock; reads only tryLock it and skip the
+ * reordering when it is busy, as a lossy read buffer would.
+ *
+ * Entries expire a fixed time after their value was written. A hit older than
+ * the refresh interval triggers a background reload while the current value
+ * keeps being served (refresh-ahead).
+ */
+public class AsyncLoadingCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final Function<K, CompletableFuture<V>> loader;
+    private final long expireNanos;
+    private final long refreshNanos;
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedRegion = new AccessOrder<>();
+    private final int maxSize;
+    private final int maxWindow;
+    private final int maxProtected;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AsyncLoadingCache(int maxSize, long expireAfterWrite, long refreshAfterWrite, TimeUnit unit,
+                             Function<K, CompletableFuture<V>> loader) {
+        if (maxSize < 2 || expireAfterWrite <= 0 || refreshAfterWrite <= 0) {
+            throw new IllegalArgumentException("Invalid cache parameters");
+        }
+        this.maxSize = maxSize;
+        this.maxWindow = Math.max(1, maxSize / 100);
+        this.maxProtected = (int) ((maxSize - maxWindow) * 0.8);
+        this.expireNanos = unit.toNanos(expireAfterWrite);
+        this.refreshNanos = unit.toNanos(refreshAfterWrite);
+        this.loader = loader;
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<V> get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            CompletableFuture<V> future = node.future;
+            long age = System.nanoTime() - node.writeNanos;
+            if (!future.isDone() || age < expireNanos) {
+                hits.increment();
+                if (future.isDone() && age >= refreshNanos) {
+                    refresh(node);
+                }
+                afterRead(node);
+                return future;
+            }
+            // Expired: drop it and fall through to a fresh single-flight load
+            if (data.remove(key, node)) {
+                removeFromPolicy(node);
+            }
+        }
+        misses.increment();
+        Object[] created = new Object[1];
+        node = data.computeIfAbsent(key, k -> {
+            loads.increment();
+            Node<K, V> fresh = new Node<>(k, load(k));
+            created[0] = fresh;
+            return fresh;
+        });
+        if (created[0] == null) {
+            // Lost the race to a concurrent miss; share its in-flight future
+            return node.future;
+        }
+        Node<K, V> inserted = (Node<K, V>) created[0];
+        CompletableFuture<V> future = inserted.future;
+        if (future.isDone()) {
+            // Synchronous loaders: no completion callback to allocate
+            onLoaded(inserted, future.isCompletedExceptionally());
+        } else {
+            future.whenComplete((value, error) -> onLoaded(inserted, error != null));
+        }
+        afterWrite(inserted);
+        return future;
+    }
+
+    // A loader that throws or returns null counts as a failed load rather than breaking the caller or the entry
+    private CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future;
+        try {
+            future = loader.apply(key);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return future != null ? future
+                : CompletableFuture.failedFuture(new NullPointerException("Loader returned null for " + key));
+    }
+
+    private void onLoaded(Node<K, V> node, boolean failed) {
+        if (!failed) {
+            node.writeNanos = System.nanoTime();
+        } else if (data.remove(node.key, node)) {
+            removeFromPolicy(node);
+        }
+    }
+
+    private void refresh(Node<K, V> node) {
+        if (!node.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshes.increment();
+        load(node.key).whenComplete((value, error) -> {
+            if (error == null && data.get(node.key) == node) {
+                node.future = CompletableFuture.completedFuture(value);
+                node.writeNanos = System.nanoTime();
+            }
+            node.refreshing.set(false);
+        });
+    }
+
+    public void invalidate(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            removeFromPolicy(node);
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(node.hash);
+            onHit(node);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void afterWrite(Node<K, V> node) {
+        policyLock.lock();
+        try {
+            if (node.removed) {
+                return;
+            }
+            sketch.increment(node.hash);
+            node.region = WINDOW;
+            window.addLast(node);
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void removeFromPolicy(Node<K, V> node) {
+        policyLock.lock();
+        try {
+            if (!node.removed) {
+                node.removed = true;
+                if (node.linked) {
+                    regionOf(node).unlink(node);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Caller holds policyLock
+    private void onHit(Node<K, V> node) {
+        if (!node.linked) {
+            // Removed, or the inserting thread has not reached afterWrite yet
+            return;
+        }
+        if (node.region == PROBATION) {
+            probation.unlink(node);
+            node.region = PROTECTED;
+            protectedRegion.addLast(node);
+            if (protectedRegion.size > maxProtected) {
+                Node<K, V> demoted = protectedRegion.head;
+                protectedRegion.unlink(demoted);
+                demoted.region = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else {
+            regionOf(node).moveToLast(node);
+        }
+    }
+
+    // Caller holds policyLock
+    private void evict() {
+        while (window.size > maxWindow) {
+            Node<K, V> candidate = window.head;
+            window.unlink(candidate);
+            candidate.region = PROBATION;
+            probation.addLast(candidate);
+            if (window.size + probation.size + protectedRegion.size <= maxSize) {
+                continue;
+            }
+            // Admission: the newcomer must be more frequent than the main region's LRU victim
+            Node<K, V> victim = probation.head;
+            if (victim == candidate) {
+                victim = protectedRegion.head != null ? protectedRegion.head : candidate;
+            }
+            Node<K, V> evicted = sketch.frequency(candidate.hash) > sketch.frequency(victim.hash) ? victim : candidate;
+            regionOf(evicted).unlink(evicted);
+            evicted.removed = true;
+            data.remove(evicted.key, evicted);
+            evictions.increment();
+        }
+    }
+
+    private AccessOrder<K, V> regionOf(Node<K, V> node) {
+        return node.region == WINDOW ? window : node.region == PROBATION ? probation : protectedRegion;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Loader calls for misses; one per key per flight however many callers missed together
+    public long loads() {
+        return loads.sum();
+    }
+
+    public long refreshes() {
+        return refreshes.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile CompletableFuture<V> future;
+        volatile long writeNanos = System.nanoTime();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        // Guarded by policyLock
+        int region;
+        boolean linked;
+        boolean removed;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, CompletableFuture<V> future) {
+            this.key = key;
+            this.hash = key.hashCode();
+            this.future = future;
+        }
+    }
+
+    // Intrusive doubly linked LRU list: head is least recently used
+    private static final class AccessOrder<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        int size;
+
+        void addLast(Node<K, V> node) {
+            node.linked = true;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.linked = false;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (tail != node) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /*
+     * Count-min sketch with four 4-bit counters per key packed sixteen to a
+     * long. Once the number of increments reaches ten times the table width,
+     * every counter is halved so old popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(2, maxSize) - 1) << 1;
+            table = new long[width];
+            mask = width - 1;
+            sampleSize = 10 * width;
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                long h = mix(hash, i);
+                int index = (int) (h >>> 32) & mask;
+                int shift = (int) (h & 15) << 2;
+                min = Math.min(min, (int) ((table[index] >>> shift) & 0xF));
+            }
+            return min;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                long h = mix(hash, i);
+                int index = (int) (h >>> 32) & mask;
+                int shift = (int) (h & 15) << 2;
+                if (((table[index] >>> shift) & 0xF) != 0xF) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static long mix(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[(i + 1) & 3];
+            return h ^ (h >>> 29);
+        }
+    }
+}
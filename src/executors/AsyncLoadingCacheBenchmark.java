@@ -0,0 +1,208 @@
+package executors;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+public class AsyncLoadingCacheBenchmark {
+
+    interface Cache {
+        CompletableFuture<Integer> get(Integer key);
+    }
+
+    // Size-bounded access-order LRU with the same single-flight futures, for comparison
+    static final class LruCache implements Cache {
+        private final Map<Integer, CompletableFuture<Integer>> map;
+        private final Function<Integer, CompletableFuture<Integer>> loader;
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+
+        LruCache(int maxSize, Function<Integer, CompletableFuture<Integer>> loader) {
+            this.loader = loader;
+            this.map = new LinkedHashMap<>(maxSize * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<Integer>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        @Override
+        public synchronized CompletableFuture<Integer> get(Integer key) {
+            CompletableFuture<Integer> future = map.get(key);
+            if (future != null) {
+                hits.incrementAndGet();
+                return future;
+            }
+            misses.incrementAndGet();
+            future = loader.apply(key);
+            map.put(key, future);
+            return future;
+        }
+
+        double hitRate() {
+            return (double) hits.get() / (hits.get() + misses.get());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Async Loading Cache Benchmark ===\n");
+
+        int keySpace = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int cacheSize = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 4_000_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        demoSingleFlight();
+        demoExpiryAndRefresh();
+
+        Function<Integer, CompletableFuture<Integer>> instant = CompletableFuture::completedFuture;
+
+        System.out.println("3. Hit rate, " + keySpace + " keys, capacity " + cacheSize + ", " + requests + " requests:");
+        System.out.printf("   %-30s %14s %14s%n", "workload", "LRU", "W-TinyLFU");
+        for (double skew : new double[]{0.7, 0.9, 0.99, 1.2}) {
+            int[] trace = zipf(keySpace, skew, requests, 11);
+            hitRates("Zipf s=" + skew, trace, cacheSize, instant);
+        }
+        // Every other request is a one-off key from a sequential scan, which floods an LRU
+        int[] mixed = zipf(keySpace, 0.9, requests, 13);
+        for (int i = 1; i < mixed.length; i += 2) {
+            mixed[i] = keySpace + i;
+        }
+        hitRates("Zipf s=0.9 + 50% scan", mixed, cacheSize, instant);
+        System.out.println();
+
+        System.out.println("4. Throughput, Zipf s=0.99, " + threads + " threads:");
+        int[] trace = zipf(keySpace, 0.99, requests, 17);
+        System.out.printf("   %-30s %14s %14s %22s%n", "cache", "gets/s", "hit rate", "μs/get, 100 μs misses");
+        for (int round = 0; round < 2; round++) {
+            // First round warms up both, only the second is reported
+            boolean report = round == 1;
+            LruCache lru = new LruCache(cacheSize, instant);
+            throughput(report ? "synchronized LRU" : null, lru, trace, threads, lru::hitRate);
+            AsyncLoadingCache<Integer, Integer> tiny = new AsyncLoadingCache<>(cacheSize, 10, 5, TimeUnit.MINUTES, instant);
+            throughput(report ? "AsyncLoadingCache" : null, tiny::get, trace, threads, tiny::hitRate);
+        }
+        System.out.println();
+        System.out.println("Async loading cache benchmark completed!");
+    }
+
+    static void demoSingleFlight() throws Exception {
+        System.out.println("1. Single-flight: 1000 concurrent misses for one key:");
+        Executor slowBackend = CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS);
+        AtomicLong calls = new AtomicLong();
+        AsyncLoadingCache<String, String> cache = new AsyncLoadingCache<>(100, 10, 5, TimeUnit.SECONDS,
+                userId -> CompletableFuture.supplyAsync(() -> {
+                    calls.incrementAndGet();
+                    return "profile of " + userId;
+                }, slowBackend));
+        Thread[] callers = new Thread[8];
+        for (int t = 0; t < callers.length; t++) {
+            callers[t] = new Thread(() -> {
+                for (int i = 0; i < 125; i++) {
+                    cache.get("user-42");
+                }
+            });
+            callers[t].start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        System.out.println("   Result: " + cache.get("user-42").get() + ", backend calls: " + calls.get()
+                + ", loader invocations: " + cache.loads());
+        System.out.println();
+    }
+
+    static void demoExpiryAndRefresh() throws Exception {
+        System.out.println("2. Refresh after 100 ms, expire after 300 ms:");
+        AtomicLong version = new AtomicLong();
+        AsyncLoadingCache<String, String> cache = new AsyncLoadingCache<>(100, 300, 100, TimeUnit.MILLISECONDS,
+                key -> CompletableFuture.completedFuture(key + " v" + version.incrementAndGet()));
+        long start = System.nanoTime();
+        for (long at : new long[]{0, 150, 200, 350, 750}) {
+            Thread.sleep(Math.max(0, at - (System.nanoTime() - start) / 1_000_000));
+            String value = cache.get("config").get();
+            System.out.printf("   t=%3d ms  %-12s loads=%d refreshes=%d%n", at, value, cache.loads(), cache.refreshes());
+        }
+        System.out.println("   (t=150 serves v1 and refreshes in the background; t=750 is 400 ms after the last write, so it reloads)");
+        System.out.println();
+    }
+
+    static void hitRates(String name, int[] trace, int cacheSize, Function<Integer, CompletableFuture<Integer>> loader) {
+        LruCache lru = new LruCache(cacheSize, loader);
+        AsyncLoadingCache<Integer, Integer> tiny = new AsyncLoadingCache<>(cacheSize, 10, 5, TimeUnit.MINUTES, loader);
+        for (int key : trace) {
+            lru.get(key);
+            tiny.get(key);
+        }
+        System.out.printf("   %-30s %13.1f%% %13.1f%%%n", name, lru.hitRate() * 100, tiny.hitRate() * 100);
+    }
+
+    static void throughput(String name, Cache cache, int[] trace, int threads, DoubleSupplier hitRate)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * (trace.length / threads);
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < trace.length; i++) {
+                    cache.get(trace[(offset + i) % trace.length]).join();
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (name != null) {
+            double perSecond = (double) trace.length * threads / (elapsed / 1e9);
+            // What a caller would see if each miss cost a 100 μs backend round trip
+            double effective = 1e6 / perSecond + (1 - hitRate.getAsDouble()) * 100;
+            System.out.printf("   %-30s %14.0f %13.1f%% %22.1f%n", name, perSecond, hitRate.getAsDouble() * 100, effective);
+        }
+    }
+
+    // Samples keys 0..n-1 with P(k) proportional to 1 / (k + 1)^skew, shuffled so hot keys aren't small integers
+    static int[] zipf(int n, double skew, int samples, long seed) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        int[] trace = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            double u = random.nextDouble() * sum;
+            int low = 0;
+            int high = n - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            trace[i] = permutation[low];
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,492 @@
+package executors;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * Opt-in tracing for CompletableFuture graphs. Stages are created through
+ * the tracer with a name (supplyAsync, thenApply, thenCompose, thenCombine,
+ * allOf, ...). A disabled tracer hands each call straight to the matching
+ * CompletableFuture method, so leaving the calls in place costs one branch.
+ * An enabled tracer records a span per stage: when its inputs were done
+ * (ready), when it started and finished running and on which thread, and
+ * for compose stages when the returned stage completed. Finished spans go
+ * into a fixed-size ring by an atomic sequence, overwriting the oldest, so
+ * tracing never blocks and never grows.
+ *
+ * The critical path of a result is found by walking back from its span to
+ * whichever input completed last (or, for a compose stage, to the stage it
+ * waited on). toTraceJson writes the spans in the trace-event format read by
+ * chrome://tracing and Perfetto, with dependency arrows and the critical
+ * path highlighted.
+ */
+public final class AsyncTracer {
+
+    public static final class Span {
+        final long id;
+        final String name;
+        final long[] dependencies;
+        // Written by the thread that runs the stage, published through the ring and the future's completion
+        long ready;
+        long start;
+        long end;
+        long done;
+        long via = -1;
+        long threadId;
+        String threadName;
+        boolean failed;
+
+        Span(long id, String name, long[] dependencies) {
+            this.id = id;
+            this.name = name;
+            this.dependencies = dependencies;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String thread() {
+            return threadName;
+        }
+
+        public boolean failed() {
+            return failed;
+        }
+
+        // Inputs done, not yet running: sitting in an executor queue
+        public long queueNanos() {
+            return start - ready;
+        }
+
+        public long runNanos() {
+            return end - start;
+        }
+
+        // Compose stages only: time spent waiting for the stage their function returned
+        public long waitNanos() {
+            return done - end;
+        }
+
+        public long readyNanos() {
+            return ready;
+        }
+
+        public long doneNanos() {
+            return done;
+        }
+    }
+
+    private static final class TracedFuture<T> extends CompletableFuture<T> {
+        final Span span;
+
+        TracedFuture(Span span) {
+            this.span = span;
+        }
+    }
+
+    private static final long[] NONE = new long[0];
+    private static final AsyncTracer DISABLED = new AsyncTracer(false, 1);
+
+    private final boolean enabled;
+    private final AtomicReferenceArray<Span> ring;
+    private final int mask;
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private AsyncTracer(boolean enabled, int capacity) {
+        this.enabled = enabled;
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(enabled ? size : 1);
+        this.mask = size - 1;
+    }
+
+    // Keeps the last `capacity` spans (rounded up to a power of two)
+    public static AsyncTracer enabled(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        return new AsyncTracer(true, capacity);
+    }
+
+    public static AsyncTracer disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(String name, Supplier<T> supplier, Executor executor) {
+        if (!enabled) {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        }
+        Span span = newSpan(name);
+        TracedFuture<T> out = new TracedFuture<>(span);
+        span.ready = System.nanoTime();
+        dispatch(executor, span, out, () -> run(span, out, supplier));
+        return out;
+    }
+
+    public <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> source, String name,
+                                                 Function<? super T, ? extends R> fn) {
+        if (!enabled) {
+            return source.thenApply(fn);
+        }
+        Span span = newSpan(name, source);
+        TracedFuture<R> out = new TracedFuture<>(span);
+        source.whenComplete((value, error) -> {
+            if (ready(span, out, error, source)) {
+                run(span, out, () -> fn.apply(value));
+            }
+        });
+        return out;
+    }
+
+    public <T, R> CompletableFuture<R> thenApplyAsync(CompletableFuture<T> source, String name,
+                                                      Function<? super T, ? extends R> fn, Executor executor) {
+        if (!enabled) {
+            return source.thenApplyAsync(fn, executor);
+        }
+        Span span = newSpan(name, source);
+        TracedFuture<R> out = new TracedFuture<>(span);
+        source.whenComplete((value, error) -> {
+            if (ready(span, out, error, source)) {
+                dispatch(executor, span, out, () -> run(span, out, () -> fn.apply(value)));
+            }
+        });
+        return out;
+    }
+
+    public <T, R> CompletableFuture<R> thenCompose(CompletableFuture<T> source, String name,
+                                                   Function<? super T, ? extends CompletionStage<R>> fn) {
+        if (!enabled) {
+            return source.thenCompose(fn);
+        }
+        Span span = newSpan(name, source);
+        TracedFuture<R> out = new TracedFuture<>(span);
+        source.whenComplete((value, error) -> {
+            if (ready(span, out, error, source)) {
+                compose(span, out, () -> fn.apply(value));
+            }
+        });
+        return out;
+    }
+
+    public <T, R> CompletableFuture<R> thenComposeAsync(CompletableFuture<T> source, String name,
+                                                        Function<? super T, ? extends CompletionStage<R>> fn,
+                                                        Executor executor) {
+        if (!enabled) {
+            return source.thenComposeAsync(fn, executor);
+        }
+        Span span = newSpan(name, source);
+        TracedFuture<R> out = new TracedFuture<>(span);
+        source.whenComplete((value, error) -> {
+            if (ready(span, out, error, source)) {
+                dispatch(executor, span, out, () -> compose(span, out, () -> fn.apply(value)));
+            }
+        });
+        return out;
+    }
+
+    public <T, U, R> CompletableFuture<R> thenCombine(CompletableFuture<T> source, CompletableFuture<U> other,
+                                                      String name, BiFunction<? super T, ? super U, ? extends R> fn) {
+        if (!enabled) {
+            return source.thenCombine(other, fn);
+        }
+        Span span = newSpan(name, source, other);
+        TracedFuture<R> out = new TracedFuture<>(span);
+        CompletableFuture.allOf(source, other).whenComplete((ignored, error) -> {
+            if (ready(span, out, error, source, other)) {
+                run(span, out, () -> fn.apply(source.join(), other.join()));
+            }
+        });
+        return out;
+    }
+
+    public CompletableFuture<Void> allOf(String name, CompletableFuture<?>... futures) {
+        if (!enabled) {
+            return CompletableFuture.allOf(futures);
+        }
+        Span span = newSpan(name, futures);
+        TracedFuture<Void> out = new TracedFuture<>(span);
+        CompletableFuture.allOf(futures).whenComplete((ignored, error) -> {
+            if (ready(span, out, error, futures)) {
+                run(span, out, () -> null);
+            }
+        });
+        return out;
+    }
+
+    // Finished spans still in the ring, oldest first
+    public List<Span> spans() {
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            Span span = ring.get(i);
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong(Span::id));
+        return spans;
+    }
+
+    // Spans that decided when `result` completed, in time order; empty if it wasn't traced or has aged out
+    public List<Span> criticalPath(CompletableFuture<?> result) {
+        if (!(result instanceof TracedFuture<?> traced)) {
+            return List.of();
+        }
+        Map<Long, Span> byId = new HashMap<>();
+        for (Span span : spans()) {
+            byId.put(span.id, span);
+        }
+        Set<Span> path = new LinkedHashSet<>();
+        walk(byId.get(traced.span.id), byId, path);
+        List<Span> ordered = new ArrayList<>(path);
+        ordered.sort(Comparator.comparingLong((Span span) -> span.ready).thenComparingLong(span -> span.id));
+        return ordered;
+    }
+
+    private static void walk(Span span, Map<Long, Span> byId, Set<Span> path) {
+        while (span != null && path.add(span)) {
+            if (span.via >= 0) {
+                // The stage returned by a compose function gated its completion
+                walk(byId.get(span.via), byId, path);
+            }
+            Span latest = null;
+            for (long dependency : span.dependencies) {
+                Span candidate = byId.get(dependency);
+                if (candidate != null && (latest == null || candidate.done > latest.done)) {
+                    latest = candidate;
+                }
+            }
+            span = latest;
+        }
+    }
+
+    // Trace-event JSON; spans on the critical path of `result` (may be null) are highlighted
+    public String toTraceJson(CompletableFuture<?> result) {
+        List<Span> spans = spans();
+        Set<Span> critical = new LinkedHashSet<>(criticalPath(result));
+        Map<Long, Span> byId = new HashMap<>();
+        long origin = Long.MAX_VALUE;
+        for (Span span : spans) {
+            byId.put(span.id, span);
+            origin = Math.min(origin, span.ready);
+        }
+        StringBuilder json = new StringBuilder(256 + spans.size() * 256);
+        json.append("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        Map<Long, String> threads = new HashMap<>();
+        for (Span span : spans) {
+            threads.putIfAbsent(span.threadId, span.threadName);
+        }
+        boolean first = true;
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            first = separator(json, first);
+            json.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(thread.getKey())
+                    .append(",\"args\":{\"name\":");
+            quote(json, thread.getValue()).append("}}");
+        }
+        for (Span span : spans) {
+            first = separator(json, first);
+            json.append("{\"name\":");
+            quote(json, span.name).append(",\"cat\":\"").append(critical.contains(span) ? "critical" : "stage")
+                    .append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(span.threadId)
+                    .append(",\"ts\":").append(micros(span.start - origin))
+                    .append(",\"dur\":").append(micros(span.done - span.start));
+            if (critical.contains(span)) {
+                json.append(",\"cname\":\"terrible\"");
+            }
+            json.append(",\"args\":{\"id\":").append(span.id)
+                    .append(",\"queue_us\":").append(micros(span.queueNanos()))
+                    .append(",\"run_us\":").append(micros(span.runNanos()))
+                    .append(",\"wait_us\":").append(micros(span.waitNanos()))
+                    .append(",\"failed\":").append(span.failed).append("}}");
+            for (long dependency : span.dependencies) {
+                Span from = byId.get(dependency);
+                if (from == null) {
+                    continue;
+                }
+                // Flow arrow from the end of the input to the start of this stage
+                String flow = from.id + "-" + span.id;
+                json.append(",{\"name\":\"dependency\",\"cat\":\"flow\",\"ph\":\"s\",\"id\":\"").append(flow)
+                        .append("\",\"pid\":1,\"tid\":").append(from.threadId)
+                        .append(",\"ts\":").append(micros(from.done - origin)).append('}');
+                json.append(",{\"name\":\"dependency\",\"cat\":\"flow\",\"ph\":\"f\",\"bp\":\"e\",\"id\":\"")
+                        .append(flow).append("\",\"pid\":1,\"tid\":").append(span.threadId)
+                        .append(",\"ts\":").append(micros(span.start - origin)).append('}');
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    public void writeTrace(Path file, CompletableFuture<?> result) throws IOException {
+        Files.writeString(file, toTraceJson(result));
+    }
+
+    private Span newSpan(String name, CompletableFuture<?>... sources) {
+        long[] dependencies = NONE;
+        int traced = 0;
+        for (CompletableFuture<?> source : sources) {
+            if (source instanceof TracedFuture<?>) {
+                traced++;
+            }
+        }
+        if (traced > 0) {
+            dependencies = new long[traced];
+            int i = 0;
+            for (CompletableFuture<?> source : sources) {
+                if (source instanceof TracedFuture<?> t) {
+                    dependencies[i++] = t.span.id;
+                }
+            }
+        }
+        return new Span(ids.getAndIncrement(), name, dependencies);
+    }
+
+    // Called when the inputs are done; false (and the stage failed) if one of them failed
+    private boolean ready(Span span, CompletableFuture<?> out, Throwable error, CompletableFuture<?>... sources) {
+        // nanoTime may be negative, so the latest input is found by difference and seeded from the first one
+        long ready = 0;
+        boolean seeded = false;
+        for (CompletableFuture<?> source : sources) {
+            // Untraced inputs have no completion time; for those, now is the best estimate
+            long done = source instanceof TracedFuture<?> t ? t.span.done : System.nanoTime();
+            if (!seeded || done - ready > 0) {
+                ready = done;
+                seeded = true;
+            }
+        }
+        span.ready = seeded ? ready : System.nanoTime();
+        if (error == null) {
+            return true;
+        }
+        begin(span);
+        span.failed = true;
+        span.end = span.start;
+        finish(span, out, null, error, span.start);
+        return false;
+    }
+
+    private void dispatch(Executor executor, Span span, CompletableFuture<?> out, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            begin(span);
+            span.failed = true;
+            span.end = span.start;
+            finish(span, out, null, e, span.start);
+        }
+    }
+
+    private <R> void run(Span span, TracedFuture<R> out, Supplier<? extends R> body) {
+        begin(span);
+        R value;
+        try {
+            value = body.get();
+        } catch (Throwable t) {
+            span.end = System.nanoTime();
+            span.failed = true;
+            finish(span, out, null, t, span.end);
+            return;
+        }
+        span.end = System.nanoTime();
+        finish(span, out, value, null, span.end);
+    }
+
+    private <R> void compose(Span span, TracedFuture<R> out, Supplier<? extends CompletionStage<R>> body) {
+        begin(span);
+        CompletionStage<R> next;
+        try {
+            next = body.get();
+            if (next == null) {
+                throw new NullPointerException("Compose function of " + span.name + " returned null");
+            }
+        } catch (Throwable t) {
+            span.end = System.nanoTime();
+            span.failed = true;
+            finish(span, out, null, t, span.end);
+            return;
+        }
+        span.end = System.nanoTime();
+        if (next instanceof TracedFuture<?> t) {
+            span.via = t.span.id;
+        }
+        next.whenComplete((value, error) -> {
+            span.failed = error != null;
+            finish(span, out, value, error, System.nanoTime());
+        });
+    }
+
+    private static void begin(Span span) {
+        Thread current = Thread.currentThread();
+        span.threadId = current.threadId();
+        span.threadName = current.getName().isEmpty() ? "virtual-" + current.threadId() : current.getName();
+        span.start = System.nanoTime();
+    }
+
+    private <R> void finish(Span span, CompletableFuture<R> out, R value, Throwable error, long done) {
+        span.done = done;
+        ring.set((int) (written.getAndIncrement() & mask), span);
+        if (error == null) {
+            out.complete(value);
+        } else {
+            // Same wrapping as CompletableFuture's own dependent stages
+            out.completeExceptionally(error instanceof CompletionException ? error : new CompletionException(error));
+        }
+    }
+
+    private static boolean separator(StringBuilder json, boolean first) {
+        if (!first) {
+            json.append(',');
+        }
+        return false;
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e3);
+    }
+
+    private static StringBuilder quote(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
+}
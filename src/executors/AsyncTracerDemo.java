@@ -0,0 +1,203 @@
+package executors;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+public class AsyncTracerDemo {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Async Tracer Demo ===\n");
+
+        ExecutorService pool = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r);
+            thread.setName("worker-" + thread.threadId());
+            return thread;
+        });
+
+        demoOverhead();
+
+        // Warm-up, not reported: the first traced graphs otherwise show class loading as queue time
+        AsyncTracer warmUp = AsyncTracer.enabled(1024);
+        for (int i = 0; i < 3; i++) {
+            composition(warmUp, pool, 0).join();
+            combining(warmUp, pool, 0).join();
+        }
+
+        AsyncTracer tracer = AsyncTracer.enabled(1024);
+        CompletableFuture<String> response = demoAsyncComposition(tracer, pool);
+        CompletableFuture<Integer> sum = demoCombiningFutures(tracer, pool);
+
+        System.out.println("4. Trace export:");
+        Path file = Files.createTempFile("async-trace-", ".json");
+        tracer.writeTrace(file, sum);
+        System.out.println("   " + tracer.spans().size() + " spans written to " + file + " (" + Files.size(file)
+                + " bytes); open in chrome://tracing or ui.perfetto.dev");
+        System.out.println("   critical path of the combined sum is highlighted");
+        System.out.println();
+
+        pool.shutdown();
+        System.out.println("Async tracer demo completed!");
+    }
+
+    static CompletableFuture<String> demoAsyncComposition(AsyncTracer tracer, Executor pool) {
+        System.out.println("2. Async composition (demoAsyncComposition), traced:");
+        long since = System.nanoTime();
+        CompletableFuture<String> response = composition(tracer, pool, 10);
+        System.out.println("   " + response.join());
+        print(tracer, response, since);
+        return response;
+    }
+
+    static CompletableFuture<Integer> demoCombiningFutures(AsyncTracer tracer, Executor pool) {
+        System.out.println("3. Combining futures (demoCombiningFutures), traced on 2 threads:");
+        long since = System.nanoTime();
+        CompletableFuture<Integer> sum = combining(tracer, pool, 10);
+        System.out.println("   Sum: " + sum.join());
+        print(tracer, sum, since);
+        return sum;
+    }
+
+    // demoAsyncComposition from CompletableFutureDemo, with its sleeps divided by `scale`
+    static CompletableFuture<String> composition(AsyncTracer tracer, Executor pool, int scale) {
+        CompletableFuture<String> userId = tracer.supplyAsync("fetch user id", () -> {
+            sleepMillis(200, scale);
+            return "user123";
+        }, pool);
+        CompletableFuture<String> profile = tracer.thenComposeAsync(userId, "fetch profile", id ->
+                tracer.supplyAsync("profile query", () -> {
+                    sleepMillis(300, scale);
+                    return "Profile data for " + id;
+                }, pool), pool);
+        CompletableFuture<String> preferences = tracer.thenComposeAsync(profile, "fetch preferences", p ->
+                tracer.supplyAsync("preferences query", () -> {
+                    sleepMillis(150, scale);
+                    return p + " with preferences loaded";
+                }, pool), pool);
+        return tracer.thenApplyAsync(preferences, "format", data -> "Final Response: " + data, pool);
+    }
+
+    // demoCombiningFutures: three independent fetches, two combines and an allOf
+    static CompletableFuture<Integer> combining(AsyncTracer tracer, Executor pool, int scale) {
+        CompletableFuture<Integer> future1 = tracer.supplyAsync("future 1", () -> {
+            sleepMillis(300, scale);
+            return 10;
+        }, pool);
+        CompletableFuture<Integer> future2 = tracer.supplyAsync("future 2", () -> {
+            sleepMillis(500, scale);
+            return 20;
+        }, pool);
+        CompletableFuture<Integer> future3 = tracer.supplyAsync("future 3", () -> {
+            sleepMillis(200, scale);
+            return 30;
+        }, pool);
+        CompletableFuture<Integer> firstTwo = tracer.thenCombine(future1, future2, "combine 1+2", Integer::sum);
+        CompletableFuture<Integer> sum = tracer.thenCombine(firstTwo, future3, "add 3", Integer::sum);
+        tracer.allOf("all of 1,2,3", future1, future2, future3).join();
+        return sum;
+    }
+
+    // Every span that became ready after `since`; times relative to `since`
+    static void print(AsyncTracer tracer, CompletableFuture<?> result, long since) {
+        List<AsyncTracer.Span> path = tracer.criticalPath(result);
+        Set<Long> critical = new HashSet<>();
+        for (AsyncTracer.Span span : path) {
+            critical.add(span.id());
+        }
+        long total = path.get(path.size() - 1).doneNanos() - path.get(0).readyNanos();
+        System.out.printf("   %-2s %-20s %-12s %9s %9s %9s %9s%n", "", "stage", "thread", "ready", "queue", "run", "wait");
+        for (AsyncTracer.Span span : tracer.spans()) {
+            if (span.readyNanos() < since) {
+                continue;
+            }
+            System.out.printf("   %-2s %-20s %-12s %6.1f ms %6.1f ms %6.1f ms %6.1f ms%n",
+                    critical.contains(span.id()) ? "*" : "", span.name(), span.thread(),
+                    (span.readyNanos() - since) / 1e6, span.queueNanos() / 1e6, span.runNanos() / 1e6,
+                    span.waitNanos() / 1e6);
+        }
+        AsyncTracer.Span dominant = path.get(0);
+        for (AsyncTracer.Span span : path) {
+            if (span.queueNanos() + span.runNanos() > dominant.queueNanos() + dominant.runNanos()) {
+                dominant = span;
+            }
+        }
+        System.out.printf("   * critical path, %.1f ms end to end; largest share: %s (%.0f%%)%n", total / 1e6,
+                dominant.name(), 100.0 * (dominant.queueNanos() + dominant.runNanos()) / total);
+        System.out.println();
+    }
+
+    // Runs before anything is traced, as in a process that runs with tracing off
+    static void demoOverhead() {
+        System.out.println("1. Overhead per chain (supplyAsync + 3 thenApply, run inline, 1M chains):");
+        Executor inline = Runnable::run;
+        AsyncTracer off = AsyncTracer.disabled();
+        // Warm-up, not reported
+        for (int round = 0; round < 5; round++) {
+            plainChains(null, inline, 200_000);
+            tracedChains(null, off, inline, 200_000);
+        }
+        System.out.printf("   %-28s %12s %12s%n", "variant", "ns/chain", "bytes/chain");
+        plainChains("plain CompletableFuture", inline, 1_000_000);
+        tracedChains("tracer disabled", off, inline, 1_000_000);
+        AsyncTracer on = AsyncTracer.enabled(4096);
+        for (int round = 0; round < 3; round++) {
+            tracedChains(null, on, inline, 200_000);
+        }
+        tracedChains("tracer enabled", on, inline, 1_000_000);
+        System.out.println();
+    }
+
+    // Plain and traced chains live in separate methods so neither's compiled code shapes the other's
+    static void plainChains(String name, Executor executor, int count) {
+        long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int seed = i;
+            CompletableFuture<Integer> chain = CompletableFuture.supplyAsync(() -> seed, executor)
+                    .thenApply(v -> v + 1)
+                    .thenApply(v -> v * 3)
+                    .thenApply(v -> v ^ 7);
+            sink += chain.join();
+        }
+        report(name, count, System.nanoTime() - start, THREADS.getCurrentThreadAllocatedBytes() - bytesBefore);
+    }
+
+    static void tracedChains(String name, AsyncTracer tracer, Executor executor, int count) {
+        long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int seed = i;
+            CompletableFuture<Integer> chain = tracer.supplyAsync("source", () -> seed, executor);
+            chain = tracer.thenApply(chain, "add", v -> v + 1);
+            chain = tracer.thenApply(chain, "multiply", v -> v * 3);
+            chain = tracer.thenApply(chain, "xor", v -> v ^ 7);
+            sink += chain.join();
+        }
+        report(name, count, System.nanoTime() - start, THREADS.getCurrentThreadAllocatedBytes() - bytesBefore);
+    }
+
+    static void report(String name, int count, long elapsed, long bytes) {
+        if (name != null) {
+            System.out.printf("   %-28s %12.1f %12.1f%n", name, (double) elapsed / count, (double) bytes / count);
+        }
+    }
+
+    static void sleepMillis(long millis, int scale) {
+        if (scale > 0) {
+            LockSupport.parkNanos(millis * 1_000_000 / scale);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/*
+ * DataLoader-style request batching: load(key) returns a future right away
+ * and parks the key in the current window. The window is dispatched as one
+ * bulk call when it reaches maxBatch distinct keys, or once the window time
+ * has passed since its first key (a window of 0 means "on the scheduler's
+ * next tick", i.e. as soon as the burst of callers in progress has had a
+ * chance to add their keys). Keys repeated within a window share one future
+ * and are sent once. Keys missing from the bulk result complete with null;
+ * a failed bulk call, or one that returns or completes with null, fails
+ * every future in the batch.
+ */
+public class BatchLoader<K, V> implements AutoCloseable {
+
+    private final Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private LinkedHashMap<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private boolean closed;
+
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public BatchLoader(Function<List<K>, CompletableFuture<Map<K, V>>> bulkLoader, int maxBatch,
+                       long window, TimeUnit unit) {
+        if (maxBatch < 1 || window < 0) {
+            throw new IllegalArgumentException("maxBatch must be positive and window non-negative");
+        }
+        this.bulkLoader = bulkLoader;
+        this.maxBatch = maxBatch;
+        this.windowNanos = unit.toNanos(window);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "BatchLoaderTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future;
+        LinkedHashMap<K, CompletableFuture<V>> full = null;
+        synchronized (this) {
+            // Checked before touching pending: after close() no timer is left to dispatch it
+            if (closed) {
+                throw new IllegalStateException("BatchLoader is closed");
+            }
+            requested.increment();
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            boolean first = pending.isEmpty();
+            pending.put(key, future);
+            if (pending.size() >= maxBatch) {
+                full = take();
+            } else if (first) {
+                LinkedHashMap<K, CompletableFuture<V>> window = pending;
+                scheduler.schedule(() -> flush(window), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    public CompletableFuture<List<V>> loadMany(Collection<K> keys) {
+        List<CompletableFuture<V>> futures = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            futures.add(load(key));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<V> values = new ArrayList<>(futures.size());
+            for (CompletableFuture<V> future : futures) {
+                values.add(future.join());
+            }
+            return values;
+        });
+    }
+
+    // Dispatches whatever is waiting now instead of at the end of the window
+    public void flush() {
+        LinkedHashMap<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            batch = pending.isEmpty() ? null : take();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    // Timer path: only flushes if that window has not already gone out on size
+    private void flush(LinkedHashMap<K, CompletableFuture<V>> window) {
+        synchronized (this) {
+            if (pending != window) {
+                return;
+            }
+            take();
+        }
+        dispatch(window);
+    }
+
+    // Caller holds the monitor
+    private LinkedHashMap<K, CompletableFuture<V>> take() {
+        LinkedHashMap<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(LinkedHashMap<K, CompletableFuture<V>> batch) {
+        batches.increment();
+        dispatched.add(batch.size());
+        CompletableFuture<Map<K, V>> result;
+        try {
+            result = bulkLoader.apply(new ArrayList<>(batch.keySet()));
+            if (result == null) {
+                result = CompletableFuture.failedFuture(new NullPointerException("Bulk loader returned null"));
+            }
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((values, error) -> {
+            Throwable failure = error != null || values != null ? error
+                    : new NullPointerException("Bulk loader completed with a null map");
+            // Every future is completed even if one lookup throws, or its caller would wait forever
+            for (Map.Entry<K, CompletableFuture<V>> entry : batch.entrySet()) {
+                if (failure != null) {
+                    entry.getValue().completeExceptionally(failure);
+                    continue;
+                }
+                try {
+                    entry.getValue().complete(values.get(entry.getKey()));
+                } catch (RuntimeException e) {
+                    entry.getValue().completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    // Every load() call, including duplicates within a window
+    public long keysRequested() {
+        return requested.sum();
+    }
+
+    // Distinct keys actually sent to the bulk loader
+    public long keysDispatched() {
+        return dispatched.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    // Sends what is pending and stops the window timer; later load() calls throw
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package executors;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+public class BatchLoaderBenchmark {
+
+    /*
+     * Profile service behind a pool of 8 connections: every call costs 2 ms
+     * of round trip plus 5 μs per key, and ids at or above 4500 don't exist.
+     */
+    static final class ProfileBackend {
+        private final ExecutorService connections = Executors.newFixedThreadPool(8);
+        final AtomicLong calls = new AtomicLong();
+
+        CompletableFuture<String> getOne(int id) {
+            return CompletableFuture.supplyAsync(() -> {
+                roundTrip(1);
+                return id < 4500 ? "profile-" + id : null;
+            }, connections);
+        }
+
+        CompletableFuture<Map<Integer, String>> getMany(List<Integer> ids) {
+            return CompletableFuture.supplyAsync(() -> {
+                roundTrip(ids.size());
+                Map<Integer, String> found = new HashMap<>();
+                for (int id : ids) {
+                    if (id < 4500) {
+                        found.put(id, "profile-" + id);
+                    }
+                }
+                return found;
+            }, connections);
+        }
+
+        private void roundTrip(int keys) {
+            calls.incrementAndGet();
+            LockSupport.parkNanos(2_000_000 + keys * 5_000L);
+        }
+
+        void shutdown() {
+            connections.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Batch Loader Benchmark ===\n");
+
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        System.out.println("Open-loop callers asking for one profile each (ids 0-4999, skewed), backend with");
+        System.out.println("8 connections at 2 ms + 5 μs/key per call; latency measured from each request's scheduled arrival\n");
+
+        System.out.println("1. Absent keys and duplicates:");
+        ProfileBackend demoBackend = new ProfileBackend();
+        try (BatchLoader<Integer, String> loader = new BatchLoader<>(demoBackend::getMany, 100, 1, TimeUnit.MILLISECONDS)) {
+            List<String> values = loader.loadMany(List.of(7, 4999, 7, 8, 7)).get();
+            System.out.println("   loadMany(7, 4999, 7, 8, 7) = " + values);
+            System.out.println("   " + loader.keysRequested() + " keys requested, " + loader.keysDispatched()
+                    + " sent, in " + demoBackend.calls.get() + " backend call");
+        }
+        demoBackend.shutdown();
+        System.out.println();
+
+        // Warm-up, not reported
+        run(null, 5_000, 1, backend -> backend::getOne);
+        run(null, 5_000, 1, backend -> batched(backend, 0));
+
+        System.out.printf("%-28s %10s %12s %10s %10s %10s %12s%n", "strategy", "req/s", "backend calls",
+                "req/call", "p50", "p99", "completed");
+        for (int rate : new int[]{2_000, 20_000}) {
+            run("one call per key", rate, seconds, backend -> backend::getOne);
+            run("batched, next tick", rate, seconds, backend -> batched(backend, 0));
+            run("batched, 1 ms window", rate, seconds, backend -> batched(backend, 1_000));
+            System.out.println();
+        }
+        System.out.println("Per-key calls cap out near 8 connections / 2 ms = 4000 calls/s; past that the queue grows without bound.");
+        System.out.println("Batch loader benchmark completed!");
+    }
+
+    interface Strategy {
+        IntFunction<CompletableFuture<String>> bind(ProfileBackend backend);
+    }
+
+    private static IntFunction<CompletableFuture<String>> batched(ProfileBackend backend, long windowMicros) {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(backend::getMany, 256, windowMicros,
+                TimeUnit.MICROSECONDS);
+        return loader::load;
+    }
+
+    static void run(String name, int rate, int seconds, Strategy strategy) throws InterruptedException {
+        ProfileBackend backend = new ProfileBackend();
+        IntFunction<CompletableFuture<String>> client = strategy.bind(backend);
+        LatencyHistogram latency = new LatencyHistogram();
+        int requests = rate * seconds;
+        CountDownLatch done = new CountDownLatch(requests);
+        Random random = new Random(5);
+        long interval = 1_000_000_000L / rate;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long scheduled = start + i * interval;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 50_000) {
+                LockSupport.parkNanos(wait);
+            }
+            // Squaring a uniform draw skews requests toward low ids, so windows see repeated keys
+            double u = random.nextDouble();
+            int id = (int) (u * u * 5000);
+            client.apply(id).whenComplete((value, error) -> {
+                latency.record(System.nanoTime() - scheduled);
+                done.countDown();
+            });
+        }
+        // Give the backlog a bounded time to drain; an overloaded strategy may not make it
+        boolean finished = done.await(10, TimeUnit.SECONDS);
+        long completed = requests - done.getCount();
+        backend.shutdown();
+        if (name != null) {
+            long calls = backend.calls.get();
+            System.out.printf("%-28s %10d %12d %10.1f %7.1f ms %7.1f ms %12s%n", name, rate, calls,
+                    (double) completed / Math.max(1, calls), latency.percentile(50) / 1e6, latency.percentile(99) / 1e6,
+                    finished ? "all" : completed + "/" + requests);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * Front-end that coalesces tiny work items into batches before they reach a
+ * pool. Items accumulate in a buffer per submitting thread or per key; a
+ * buffer is handed to the bulk handler as one pool task when it reaches
+ * maxBatch items, or by a background scanner once its oldest item has waited
+ * the linger time. Batches from the same buffer may run concurrently, so
+ * handlers must not rely on ordering between batches. A batch the pool
+ * rejects runs on the thread that flushed it.
+ */
+public class BatchingExecutor<T> implements AutoCloseable {
+
+    private final Executor pool;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final Consumer<List<T>> handler;
+    private final Function<T, Object> keyFunction;
+    private final ThreadLocal<Buffer> threadBuffers;
+    private final ConcurrentHashMap<Object, Buffer> keyBuffers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Buffer> allThreadBuffers = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scanner;
+    private final LongAdder sizeFlushes = new LongAdder();
+    private final LongAdder lingerFlushes = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private volatile boolean closed;
+
+    private BatchingExecutor(Executor pool, int maxBatch, long linger, TimeUnit unit,
+                             Consumer<List<T>> handler, Function<T, Object> keyFunction) {
+        if (maxBatch < 1 || linger <= 0) {
+            throw new IllegalArgumentException("maxBatch and linger must be positive");
+        }
+        this.pool = pool;
+        this.maxBatch = maxBatch;
+        this.lingerNanos = unit.toNanos(linger);
+        this.handler = handler;
+        this.keyFunction = keyFunction;
+        this.threadBuffers = keyFunction != null ? null : ThreadLocal.withInitial(() -> {
+            Buffer buffer = new Buffer(Thread.currentThread(), maxBatch);
+            allThreadBuffers.add(buffer);
+            return buffer;
+        });
+        this.scanner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "BatchLingerScanner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, lingerNanos / 2);
+        scanner.scheduleAtFixedRate(this::flushExpired, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    // One buffer per submitting thread: no contention between producers
+    public static <T> BatchingExecutor<T> perThread(Executor pool, int maxBatch, long linger, TimeUnit unit,
+                                                    Consumer<List<T>> handler) {
+        return new BatchingExecutor<>(pool, maxBatch, linger, unit, handler, null);
+    }
+
+    // One buffer per key, so every batch the handler sees belongs to a single key
+    public static <T> BatchingExecutor<T> perKey(Executor pool, int maxBatch, long linger, TimeUnit unit,
+                                                 Function<T, ?> keyFunction, Consumer<List<T>> handler) {
+        return new BatchingExecutor<>(pool, maxBatch, linger, unit, handler, keyFunction::apply);
+    }
+
+    public void submit(T item) {
+        while (true) {
+            Buffer buffer = keyFunction == null
+                    ? threadBuffers.get()
+                    : keyBuffers.computeIfAbsent(keyFunction.apply(item), key -> new Buffer(key, maxBatch));
+            List<T> full;
+            synchronized (buffer) {
+                if (buffer.retired) {
+                    // The scanner dropped this idle key buffer after we looked it up; fetch a fresh one
+                    continue;
+                }
+                // Checked under the buffer's monitor, so close() either flushes this item or we see the flag
+                if (closed) {
+                    throw new RejectedExecutionException("BatchingExecutor has been closed");
+                }
+                if (buffer.pending.isEmpty()) {
+                    buffer.firstItemNanos = System.nanoTime();
+                }
+                buffer.pending.add(item);
+                if (buffer.pending.size() < maxBatch) {
+                    return;
+                }
+                full = buffer.take();
+            }
+            sizeFlushes.increment();
+            dispatch(full);
+            return;
+        }
+    }
+
+    // Never throws: the batch's items were already accepted, and the scanner dies on its first exception
+    private void dispatch(List<T> batch) {
+        items.add(batch.size());
+        try {
+            pool.execute(() -> handler.accept(batch));
+        } catch (RejectedExecutionException e) {
+            // Saturated or shut-down pool: run the batch here instead of dropping it, like CallerRunsPolicy
+            callerRuns.increment();
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException failure) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, failure);
+            }
+        }
+    }
+
+    private void flushExpired() {
+        long now = System.nanoTime();
+        for (Buffer buffer : allThreadBuffers) {
+            flushIfExpired(buffer, now, false);
+            if (!((Thread) buffer.owner).isAlive() && buffer.isEmpty()) {
+                allThreadBuffers.remove(buffer);
+            }
+        }
+        for (Buffer buffer : keyBuffers.values()) {
+            if (flushIfExpired(buffer, now, false)) {
+                continue;
+            }
+            synchronized (buffer) {
+                // Key buffers idle for two linger periods are dropped so dead keys don't accumulate
+                if (buffer.pending.isEmpty() && now - buffer.firstItemNanos >= 2 * lingerNanos) {
+                    buffer.retired = true;
+                    keyBuffers.remove(buffer.owner, buffer);
+                }
+            }
+        }
+    }
+
+    private boolean flushIfExpired(Buffer buffer, long now, boolean force) {
+        List<T> batch;
+        synchronized (buffer) {
+            if (buffer.pending.isEmpty() || (!force && now - buffer.firstItemNanos < lingerNanos)) {
+                return false;
+            }
+            batch = buffer.take();
+        }
+        lingerFlushes.increment();
+        dispatch(batch);
+        return true;
+    }
+
+    // Hands every non-empty buffer to the pool now
+    public void flush() {
+        long now = System.nanoTime();
+        for (Buffer buffer : allThreadBuffers) {
+            flushIfExpired(buffer, now, true);
+        }
+        for (Buffer buffer : keyBuffers.values()) {
+            flushIfExpired(buffer, now, true);
+        }
+    }
+
+    // Flushes what is buffered, stops the linger scanner and rejects later submits; the pool is left to its owner
+    @Override
+    public void close() {
+        closed = true;
+        scanner.shutdownNow();
+        flush();
+    }
+
+    public long sizeFlushes() {
+        return sizeFlushes.sum();
+    }
+
+    // Includes explicit flush() and close() calls
+    public long lingerFlushes() {
+        return lingerFlushes.sum();
+    }
+
+    public long itemsDispatched() {
+        return items.sum();
+    }
+
+    // Batches the pool rejected, run on the submitting or scanner thread instead
+    public long callerRuns() {
+        return callerRuns.sum();
+    }
+
+    private final class Buffer {
+        // The submitting thread for per-thread buffers, the key for per-key buffers
+        final Object owner;
+        List<T> pending;
+        long firstItemNanos = System.nanoTime();
+        boolean retired;
+
+        Buffer(Object owner, int capacity) {
+            this.owner = owner;
+            this.pending = new ArrayList<>(capacity);
+        }
+
+        // Caller holds the buffer's monitor
+        List<T> take() {
+            List<T> batch = pending;
+            pending = new ArrayList<>(maxBatch);
+            firstItemNanos = System.nanoTime();
+            return batch;
+        }
+
+        synchronized boolean isEmpty() {
+            return pending.isEmpty();
+        }
+    }
+}
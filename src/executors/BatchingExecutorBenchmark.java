@@ -0,0 +1,125 @@
+package executors;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class BatchingExecutorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Micro-Batching Executor Benchmark ===\n");
+
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        System.out.println(items + " items from " + producers + " producer threads onto " + workers
+                + " workers; each item is a sub-microsecond sum, linger 1 ms\n");
+
+        // Warm-up, not reported
+        runPlainSubmit(items / 4, producers, workers);
+        runBatched(items / 4, producers, workers, 64, false, false);
+
+        System.out.printf("%-26s %14s %10s %12s %12s%n", "mode", "items/s", "batches", "by size", "by linger");
+        double plain = runPlainSubmit(items, producers, workers);
+        System.out.printf("%-26s %14.0f %10s %12s %12s%n", "plain submit", plain, "-", "-", "-");
+        for (int batch : new int[]{1, 4, 16, 64, 256, 1024}) {
+            runBatched(items, producers, workers, batch, false, true);
+        }
+        runBatched(items, producers, workers, 256, true, true);
+        System.out.println();
+        System.out.println("Linger flushes pick up partial batches left when a producer stalls or finishes.");
+        System.out.println("Micro-batching benchmark completed!");
+    }
+
+    static double runPlainSubmit(int items, int producers, int workers) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        LongAdder processed = new LongAdder();
+        AtomicLong checksum = new AtomicLong();
+        long start = System.nanoTime();
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * (items / producers);
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < items / producers; i++) {
+                    int item = base + i;
+                    pool.submit(() -> {
+                        process(item, checksum);
+                        processed.increment();
+                    });
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+        return processed.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    static void runBatched(int items, int producers, int workers, int maxBatch, boolean perKey, boolean report)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        AtomicLong processed = new AtomicLong();
+        AtomicLong checksum = new AtomicLong();
+        int total = items / producers * producers;
+        CountDownLatch done = new CountDownLatch(1);
+        LongAdder batches = new LongAdder();
+        Consumer<List<Integer>> handler = batch -> {
+            for (int item : batch) {
+                process(item, checksum);
+            }
+            batches.increment();
+            if (processed.addAndGet(batch.size()) == total) {
+                done.countDown();
+            }
+        };
+        BatchingExecutor<Integer> batching = perKey
+                ? BatchingExecutor.perKey(pool, maxBatch, 1, TimeUnit.MILLISECONDS, item -> item & 15, handler)
+                : BatchingExecutor.perThread(pool, maxBatch, 1, TimeUnit.MILLISECONDS, handler);
+
+        long start = System.nanoTime();
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * (items / producers);
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < items / producers; i++) {
+                    batching.submit(base + i);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.await(60, TimeUnit.SECONDS);
+        double rate = processed.get() / ((System.nanoTime() - start) / 1e9);
+        batching.close();
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+        if (!report) {
+            return;
+        }
+        if (processed.get() != total) {
+            System.out.println("   lost items: " + (total - processed.get()));
+        }
+        System.out.printf("%-26s %14.0f %10d %12d %12d%n",
+                (perKey ? "per key (16 keys), " : "per thread, ") + "batch " + maxBatch,
+                rate, batches.sum(), batching.sizeFlushes(), batching.lingerFlushes());
+    }
+
+    private static void process(int item, AtomicLong checksum) {
+        // Stand-in for a tiny unit of work; the occasional atomic keeps it from being optimized away
+        int x = item * 0x9E3779B9;
+        if ((x & 0xFFFF) == 0) {
+            checksum.addAndGet(x);
+        }
+    }
+}
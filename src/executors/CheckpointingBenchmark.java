@@ -0,0 +1,200 @@
+package executors;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class CheckpointingBenchmark {
+
+    static final class ThumbnailTask implements CheckpointingExecutor.TaskDescriptor, Serializable {
+        static final int TYPE = 1;
+        private static final long serialVersionUID = 1L;
+
+        final long imageId;
+        final int width;
+        final int height;
+        final String path;
+
+        ThumbnailTask(long imageId, int width, int height, String path) {
+            this.imageId = imageId;
+            this.width = width;
+            this.height = height;
+            this.path = path;
+        }
+
+        @Override
+        public int typeId() {
+            return TYPE;
+        }
+
+        @Override
+        public void writeTo(ByteBuffer out) {
+            byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+            out.putLong(imageId).putInt(width).putInt(height).putShort((short) bytes.length).put(bytes);
+        }
+
+        static ThumbnailTask read(ByteBuffer in) {
+            long imageId = in.getLong();
+            int width = in.getInt();
+            int height = in.getInt();
+            byte[] bytes = new byte[in.getShort()];
+            in.get(bytes);
+            return new ThumbnailTask(imageId, width, height, new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void run() {
+            System.out.println("   thumbnail " + width + "x" + height + " of " + path + " by "
+                    + Thread.currentThread().getName());
+        }
+    }
+
+    static final CheckpointingExecutor.TaskReader READER = (typeId, in) -> {
+        if (typeId != ThumbnailTask.TYPE) {
+            throw new IllegalArgumentException("Unknown task type " + typeId);
+        }
+        return ThumbnailTask.read(in);
+    };
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Checkpointing Executor Benchmark ===\n");
+
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("checkpoint");
+        Path file = dir.resolve("pending.ckpt");
+
+        System.out.println("1. Shutdown with queued work, then restart:");
+        CheckpointingExecutor first = new CheckpointingExecutor(1, file, READER);
+        CountDownLatch release = block(first);
+        for (int i = 1; i <= 4; i++) {
+            first.execute(new ThumbnailTask(i, 128, 128, "/images/" + i + ".jpg"));
+        }
+        System.out.println("   Checkpointed " + first.shutdownNowAndCheckpoint() + " queued tasks to "
+                + file.getFileName() + " (" + Files.size(file) + " bytes)");
+        release.countDown();
+        CheckpointingExecutor second = new CheckpointingExecutor(2, file, READER);
+        System.out.println("   Restored " + second.restore() + " tasks after restart:");
+        second.shutdown();
+        second.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println();
+
+        // Warm-up, not reported
+        checkpointRun(file, tasks / 10, false);
+        serializationRun(dir.resolve("pending.ser"), tasks / 10, false);
+
+        System.out.println("2. " + tasks + " queued tasks (long id, two ints, ~20 char path):");
+        System.out.printf("   %-34s %12s %12s %12s%n", "format", "checkpoint", "restore", "file size");
+        checkpointRun(file, tasks, true);
+        serializationRun(dir.resolve("pending.ser"), tasks, true);
+
+        Files.deleteIfExists(dir.resolve("pending.ser"));
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+        System.out.println();
+        System.out.println("Checkpointing executor benchmark completed!");
+    }
+
+    static void checkpointRun(Path file, int tasks, boolean report) throws Exception {
+        CheckpointingExecutor executor = new CheckpointingExecutor(1, file, READER);
+        CountDownLatch release = block(executor);
+        enqueue(executor, tasks);
+
+        long start = System.nanoTime();
+        int written = executor.shutdownNowAndCheckpoint();
+        long checkpoint = System.nanoTime() - start;
+        long size = Files.size(file);
+        release.countDown();
+
+        CheckpointingExecutor restarted = new CheckpointingExecutor(1, file, READER);
+        CountDownLatch hold = block(restarted);
+        start = System.nanoTime();
+        int restored = restarted.restore();
+        long restore = System.nanoTime() - start;
+        check(written, restored, restarted.getQueue().size(), tasks);
+        restarted.shutdownNow();
+        hold.countDown();
+        if (report) {
+            print("length-prefixed records (NIO)", checkpoint, restore, size);
+        }
+    }
+
+    static void serializationRun(Path file, int tasks, boolean report) throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        CountDownLatch release = block(executor);
+        enqueue(executor, tasks);
+
+        long start = System.nanoTime();
+        List<Runnable> pending = executor.shutdownNow();
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeObject(new ArrayList<>(pending));
+        }
+        long checkpoint = System.nanoTime() - start;
+        long size = Files.size(file);
+        release.countDown();
+
+        ThreadPoolExecutor restarted = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        CountDownLatch hold = block(restarted);
+        start = System.nanoTime();
+        List<?> loaded;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            loaded = (List<?>) in.readObject();
+        }
+        for (Object task : loaded) {
+            restarted.execute((Runnable) task);
+        }
+        long restore = System.nanoTime() - start;
+        check(pending.size(), loaded.size(), restarted.getQueue().size(), tasks);
+        restarted.shutdownNow();
+        hold.countDown();
+        if (report) {
+            print("ObjectOutputStream", checkpoint, restore, size);
+        }
+    }
+
+    private static void enqueue(ExecutorService executor, int tasks) {
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(new ThumbnailTask(i, 256, 256, "/images/" + (1_000_000 + i) + ".jpg"));
+        }
+    }
+
+    // Occupies the single worker so every later task stays queued
+    private static CountDownLatch block(ExecutorService executor) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        return release;
+    }
+
+    private static void check(int written, int restored, int queued, int expected) {
+        if (written != expected || restored != expected || queued != expected) {
+            System.out.println("   count mismatch: wrote " + written + ", restored " + restored + ", queued " + queued);
+        }
+    }
+
+    private static void print(String name, long checkpointNanos, long restoreNanos, long bytes) throws IOException {
+        System.out.printf("   %-34s %9.0f ms %9.0f ms %9.1f MB%n", name, checkpointNanos / 1e6, restoreNanos / 1e6,
+                bytes / 1e6);
+    }
+}
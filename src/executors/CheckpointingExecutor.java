@@ -0,0 +1,239 @@
+package executors;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Fixed-size pool whose queued work survives a restart. Tasks that implement
+ * TaskDescriptor can describe themselves as a type id plus a few bytes; on
+ * shutdownNowAndCheckpoint() every task that never started is appended to a
+ * checkpoint file as a length-prefixed record, written through one direct
+ * buffer so the whole queue costs a handful of large sequential writes. The
+ * file is written under a temporary name, forced and renamed into place, so
+ * a crash mid-checkpoint leaves the previous checkpoint intact. restore()
+ * reads it back, decodes every record with the registered TaskReader and
+ * only then resubmits them. Tasks that were already running when shutdown
+ * began are not recorded. Descriptors passed to submit() are recorded too;
+ * the future submit() returned is not, so after a restore they run unobserved.
+ *
+ * Record layout: [int length][int typeId][payload], length covering typeId
+ * and payload, after an 8-byte header (magic, version).
+ */
+public class CheckpointingExecutor extends ThreadPoolExecutor {
+
+    public interface TaskDescriptor extends Runnable {
+        int typeId();
+
+        // Must fit in MAX_RECORD bytes
+        void writeTo(ByteBuffer out);
+    }
+
+    public interface TaskReader {
+        // The buffer holds exactly one record's payload and is reused once read returns
+        TaskDescriptor read(int typeId, ByteBuffer in);
+    }
+
+    public static final int MAX_RECORD = 64 * 1024;
+    private static final int MAGIC = 0x434B5054; // "CKPT"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path checkpointFile;
+    private final TaskReader reader;
+    private volatile int unrecorded;
+
+    public CheckpointingExecutor(int threads, Path checkpointFile, TaskReader reader) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        this.checkpointFile = checkpointFile;
+        this.reader = reader;
+    }
+
+    // submit(descriptor) keeps the descriptor visible to the checkpoint instead of hiding it in a plain FutureTask
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        if (runnable instanceof TaskDescriptor descriptor) {
+            return new DescribedFuture<>(descriptor, value);
+        }
+        return super.newTaskFor(runnable, value);
+    }
+
+    // Stops the pool like shutdownNow() and writes every never-started descriptor; returns how many were written
+    public int shutdownNowAndCheckpoint() throws IOException {
+        List<Runnable> pending = shutdownNow();
+        List<TaskDescriptor> descriptors = new ArrayList<>(pending.size());
+        int skipped = 0;
+        for (Runnable task : pending) {
+            if (task instanceof TaskDescriptor) {
+                descriptors.add((TaskDescriptor) task);
+            } else {
+                skipped++;
+            }
+        }
+        unrecorded = skipped;
+        write(checkpointFile, descriptors);
+        return descriptors.size();
+    }
+
+    // Tasks left behind by the last checkpoint because they were not TaskDescriptors
+    public int unrecordedTasks() {
+        return unrecorded;
+    }
+
+    /*
+     * Decodes the whole checkpoint before running anything, deletes it, then
+     * resubmits the tasks, so a bad record fails the restore with nothing run
+     * and the file left for inspection, and a second restore cannot run a
+     * task twice. If the pool rejects a task partway, the ones not yet
+     * submitted are checkpointed again before the rejection is rethrown.
+     * Returns how many tasks were restored.
+     */
+    public int restore() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        List<TaskDescriptor> tasks = read(checkpointFile, reader);
+        Files.delete(checkpointFile);
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                execute(tasks.get(i));
+            } catch (RejectedExecutionException e) {
+                write(checkpointFile, tasks.subList(i, tasks.size()));
+                throw e;
+            }
+        }
+        return tasks.size();
+    }
+
+    // The future handed out by submit(); checkpointed as the descriptor it wraps, restored without the future
+    private static final class DescribedFuture<T> extends FutureTask<T> implements TaskDescriptor {
+        private final TaskDescriptor descriptor;
+
+        DescribedFuture(TaskDescriptor descriptor, T value) {
+            super(descriptor, value);
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public int typeId() {
+            return descriptor.typeId();
+        }
+
+        @Override
+        public void writeTo(ByteBuffer out) {
+            descriptor.writeTo(out);
+        }
+    }
+
+    private static List<TaskDescriptor> read(Path file, TaskReader reader) throws IOException {
+        List<TaskDescriptor> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Read mode with nothing buffered yet
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+            if (!fill(channel, buffer, 8)) {
+                throw new EOFException("Empty checkpoint file: " + file);
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a checkpoint file: " + file);
+            }
+            while (fill(channel, buffer, 4)) {
+                int length = buffer.getInt();
+                if (length < 4 || length > MAX_RECORD + 4) {
+                    throw new IOException("Corrupt record length " + length + " in " + file);
+                }
+                if (!fill(channel, buffer, length)) {
+                    throw new EOFException("Truncated record in " + file);
+                }
+                int typeId = buffer.getInt();
+                int end = buffer.position() + length - 4;
+                ByteBuffer payload = buffer.slice(buffer.position(), length - 4);
+                TaskDescriptor task;
+                try {
+                    task = reader.read(typeId, payload);
+                } catch (RuntimeException e) {
+                    throw new IOException("Cannot decode record of type " + typeId + " in " + file, e);
+                }
+                if (task == null) {
+                    throw new IOException("No task for record of type " + typeId + " in " + file);
+                }
+                tasks.add(task);
+                buffer.position(end);
+            }
+        }
+        return tasks;
+    }
+
+    private static void write(Path file, List<TaskDescriptor> tasks) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION);
+            for (TaskDescriptor task : tasks) {
+                if (buffer.remaining() < MAX_RECORD + 8) {
+                    drain(channel, buffer);
+                }
+                int start = buffer.position();
+                buffer.position(start + 4);
+                buffer.putInt(task.typeId());
+                int payloadStart = buffer.position();
+                try {
+                    task.writeTo(buffer.limit(payloadStart + MAX_RECORD));
+                } catch (BufferOverflowException e) {
+                    throw new IOException("Task descriptor larger than " + MAX_RECORD + " bytes: " + task, e);
+                } finally {
+                    buffer.limit(buffer.capacity());
+                }
+                buffer.putInt(start, buffer.position() - payloadStart + 4);
+            }
+            drain(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Ensures at least `needed` unread bytes are buffered; false only at a clean end of file
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        boolean any = buffer.position() > 0;
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+            any = true;
+        }
+        buffer.flip();
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        if (any) {
+            throw new EOFException("Checkpoint ends inside a record");
+        }
+        return false;
+    }
+}
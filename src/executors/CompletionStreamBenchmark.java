@@ -0,0 +1,184 @@
+package executors;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+public class CompletionStreamBenchmark {
+
+    // Largest heap still live after any GC during the current run
+    private static final AtomicLong peakLive = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Completion-Order Stream Benchmark ===\n");
+
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int maxInFlight = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        installGcListener();
+        System.out.println(tasks + " tasks of ~1 μs each, " + threads + " pool threads, "
+                + maxInFlight + " in flight for the stream");
+        System.out.println("Peak live heap = the most heap still in use right after any GC during the run\n");
+
+        System.out.println("1. Results in completion order, as they arrive:");
+        ExecutorService demo = Executors.newFixedThreadPool(3);
+        List<Callable<String>> demoTasks = List.of(sleeper("Slow", 600), sleeper("Fast", 100), sleeper("Medium", 300));
+        try (Stream<String> results = CompletionStreams.completionOrder(demo, demoTasks.iterator(), 2)) {
+            long start = System.nanoTime();
+            results.forEach(r -> System.out.printf("   %4d ms  %s%n", (System.nanoTime() - start) / 1_000_000, r));
+        }
+        demo.shutdown();
+        System.out.println("   (two in flight: Medium only starts once Fast frees a slot)\n");
+
+        // Warm-up, not reported
+        runStream(tasks / 10, threads, maxInFlight, false);
+        runInvokeAll(tasks / 10, threads, false);
+
+        System.out.println("2. Time to first result, total time and peak live heap:");
+        System.out.printf("   %-28s %14s %12s %14s %16s%n", "approach", "first result", "total", "tasks/s", "peak live heap");
+        runInvokeAll(tasks, threads, true);
+        runStream(tasks, threads, maxInFlight, true);
+        runStream(tasks, threads, 16, true);
+        System.out.println();
+        System.out.println("Completion-order stream benchmark completed!");
+    }
+
+    static void runInvokeAll(int tasks, int threads, boolean report) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        settle();
+        long start = System.nanoTime();
+        // invokeAll needs the whole collection up front and returns only when every task is done
+        List<Callable<Long>> all = new ArrayList<>();
+        Iterator<Callable<Long>> source = source(tasks);
+        while (source.hasNext()) {
+            all.add(source.next());
+        }
+        List<Future<Long>> futures = pool.invokeAll(all);
+        long first = 0;
+        long sum = 0;
+        for (Future<Long> future : futures) {
+            try {
+                sum += future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            if (first == 0) {
+                first = System.nanoTime() - start;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        if (report) {
+            print("invokeAll", first, elapsed, tasks, sum);
+        }
+    }
+
+    static void runStream(int tasks, int threads, int maxInFlight, boolean report) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        settle();
+        long start = System.nanoTime();
+        long[] first = new long[1];
+        long sum;
+        try (Stream<Long> results = CompletionStreams.completionOrder(pool, source(tasks), maxInFlight)) {
+            sum = results.mapToLong(r -> {
+                if (first[0] == 0) {
+                    first[0] = System.nanoTime() - start;
+                }
+                return r;
+            }).sum();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        if (report) {
+            print("stream, " + maxInFlight + " in flight", first[0], elapsed, tasks, sum);
+        }
+    }
+
+    // Lazy task source: nothing is materialized until the consumer pulls it
+    static Iterator<Callable<Long>> source(int tasks) {
+        return new Iterator<>() {
+            int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < tasks;
+            }
+
+            @Override
+            public Callable<Long> next() {
+                if (next >= tasks) {
+                    throw new NoSuchElementException();
+                }
+                long seed = next++;
+                return () -> work(seed);
+            }
+        };
+    }
+
+    private static long work(long seed) {
+        long x = seed;
+        for (int i = 0; i < 200; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x & 1;
+    }
+
+    private static Callable<String> sleeper(String name, long millis) {
+        return () -> {
+            Thread.sleep(millis);
+            return name + " (" + millis + " ms)";
+        };
+    }
+
+    private static void print(String name, long firstNanos, long elapsedNanos, int tasks, long sum) throws Exception {
+        // Give the GC notification thread a moment to report the last collections
+        Thread.sleep(100);
+        System.out.printf("   %-28s %11.1f ms %9.0f ms %14.0f %13.1f MB%n", name, firstNanos / 1e6, elapsedNanos / 1e6,
+                tasks / (elapsedNanos / 1e9), peakLive.get() / 1e6);
+        if (sum < 0) {
+            System.out.println("   unexpected checksum " + sum);
+        }
+    }
+
+    private static void settle() throws InterruptedException {
+        System.gc();
+        Thread.sleep(100);
+        peakLive.set(0);
+    }
+
+    private static void installGcListener() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long live = 0;
+                for (MemoryUsage usage : info.getGcInfo().getMemoryUsageAfterGc().values()) {
+                    live += usage.getUsed();
+                }
+                peakLive.accumulateAndGet(live, Math::max);
+            }, null, null);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package executors;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Streaming alternative to invokeAll: tasks are pulled lazily from an
+ * Iterator or Stream, at most maxInFlight of them are submitted at any time,
+ * and results come out in completion order as a sequential Stream. Each result
+ * taken frees a slot that is refilled before the result is handed downstream,
+ * so memory stays bounded by maxInFlight no matter how many tasks the source
+ * produces. A failed task surfaces as a CompletionException carrying its
+ * cause; closing the stream (or a failure) cancels whatever is still running.
+ */
+public final class CompletionStreams {
+
+    private CompletionStreams() {
+    }
+
+    public static <T> Stream<T> completionOrder(Executor executor, Iterator<? extends Callable<T>> tasks,
+                                                int maxInFlight) {
+        BoundedSpliterator<T> spliterator = new BoundedSpliterator<>(executor, tasks, maxInFlight);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::cancelAll);
+    }
+
+    public static <T> Stream<T> completionOrder(Executor executor, Stream<? extends Callable<T>> tasks,
+                                                int maxInFlight) {
+        return completionOrder(executor, tasks.iterator(), maxInFlight).onClose(tasks::close);
+    }
+
+    private static final class BoundedSpliterator<T> implements Spliterator<T> {
+        private final ExecutorCompletionService<T> completion;
+        private final Iterator<? extends Callable<T>> source;
+        private final int maxInFlight;
+        // Consumed by one thread, like any sequential stream; kept only so leftovers can be cancelled
+        private final Set<Future<T>> inFlight;
+
+        BoundedSpliterator(Executor executor, Iterator<? extends Callable<T>> source, int maxInFlight) {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+            }
+            this.completion = new ExecutorCompletionService<>(executor);
+            this.source = source;
+            this.maxInFlight = maxInFlight;
+            this.inFlight = new HashSet<>(Math.min(maxInFlight, 1 << 16) * 2);
+        }
+
+        private void fill() {
+            while (inFlight.size() < maxInFlight && source.hasNext()) {
+                inFlight.add(completion.submit(source.next()));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            fill();
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+            T result;
+            try {
+                Future<T> done = completion.take();
+                inFlight.remove(done);
+                result = done.get();
+            } catch (ExecutionException e) {
+                cancelAll();
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new CompletionException(e);
+            }
+            // Refill before running downstream work so the pool stays busy meanwhile
+            fill();
+            action.accept(result);
+            return true;
+        }
+
+        void cancelAll() {
+            for (Future<T> future : inFlight) {
+                future.cancel(true);
+            }
+            inFlight.clear();
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package executors;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Absolute point in time by which a unit of work must finish, carried in a
+ * thread-local so everything running on behalf of a request can see how much
+ * budget is left. DeadlineExecutor captures the caller's current deadline at
+ * submit time and installs it on the worker thread, so nested submissions and
+ * child calls inherit it without passing it around. A nested deadline can
+ * only tighten the one already in effect, never extend it.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    // The deadline in effect on this thread, or null if there is none
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    // For CPU-bound loops: throws once the current deadline has passed, a no-op without one
+    public static void check() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(deadline);
+        }
+    }
+
+    // Bounds a blocking wait by the current deadline, e.g. future.get(Deadline.remaining(2000, MILLISECONDS), ...)
+    public static long remaining(long timeout, TimeUnit unit) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return timeout;
+        }
+        return Math.max(0, Math.min(timeout, deadline.remaining(unit)));
+    }
+
+    static Deadline earliest(Deadline a, Deadline b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.deadlineNanos - b.deadlineNanos <= 0 ? a : b;
+    }
+
+    public long remaining(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    // Runs the task with this deadline (or a tighter one already in effect) installed on the current thread
+    public <T> T call(Callable<T> task) throws Exception {
+        Deadline previous = CURRENT.get();
+        Deadline effective = earliest(previous, this);
+        if (effective.isExpired()) {
+            throw new DeadlineExceededException(effective);
+        }
+        CURRENT.set(effective);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        long remaining = remaining(TimeUnit.MILLISECONDS);
+        return remaining > 0 ? "Deadline[" + remaining + " ms left]" : "Deadline[expired " + -remaining + " ms ago]";
+    }
+}
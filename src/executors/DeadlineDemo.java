@@ -0,0 +1,128 @@
+package executors;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DeadlineDemo {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Deadline Propagation Demo ===\n");
+
+        demoOuterTimeoutOnly();
+        demoDeadlineExecutor();
+        demoNestedSubmission();
+        demoFailFastInQueue();
+
+        System.out.println("Deadline propagation demo completed!");
+    }
+
+    static void demoOuterTimeoutOnly() throws Exception {
+        System.out.println("1. Timeout only at the outer get() (as in demoFutureTimeout):");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicLong lastWork = new AtomicLong();
+
+        long start = System.nanoTime();
+        Future<Integer> future = executor.submit(() -> crunch(3000, lastWork));
+        try {
+            future.get(1, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("   Caller gave up after " + millisSince(start) + " ms");
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println("   ...but the task kept burning CPU until " + (lastWork.get() - start) / 1_000_000 + " ms");
+        System.out.println();
+    }
+
+    static void demoDeadlineExecutor() throws Exception {
+        System.out.println("2. Same task with a 1 s deadline on a DeadlineExecutor:");
+        DeadlineExecutor executor = new DeadlineExecutor(1);
+        AtomicLong lastWork = new AtomicLong();
+
+        long start = System.nanoTime();
+        Future<Integer> future = executor.submit(() -> crunch(3000, lastWork), 1, TimeUnit.SECONDS);
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            System.out.println("   Failed after " + millisSince(start) + " ms: " + e.getCause().getMessage());
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println("   Task stopped working at " + (lastWork.get() - start) / 1_000_000 + " ms");
+        System.out.println();
+    }
+
+    static void demoNestedSubmission() throws Exception {
+        System.out.println("3. Nested submission inherits the remaining budget:");
+        DeadlineExecutor executor = new DeadlineExecutor(2);
+
+        long start = System.nanoTime();
+        Future<String> parent = executor.submit(() -> {
+            Thread.sleep(300);
+            // No timeout given: the child inherits whatever is left of the parent's 800 ms
+            Future<String> child = executor.submit(() -> {
+                System.out.println("   Child sees " + Deadline.current() + " and wants to sleep 2000 ms");
+                Thread.sleep(2000);
+                return "child finished";
+            });
+            return child.get();
+        }, 800, TimeUnit.MILLISECONDS);
+        try {
+            System.out.println("   " + parent.get());
+        } catch (ExecutionException e) {
+            System.out.println("   Parent failed after " + millisSince(start) + " ms: " + e.getCause().getMessage());
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println("   Both tasks done at " + millisSince(start) + " ms, " + executor.expiredTasks()
+                + " failed by deadline");
+        System.out.println();
+    }
+
+    static void demoFailFastInQueue() throws Exception {
+        System.out.println("4. Queued work whose deadline passes never runs:");
+        DeadlineExecutor executor = new DeadlineExecutor(1);
+        executor.submit(() -> {
+            Thread.sleep(500);
+            return null;
+        });
+        Future<String> queued = executor.submit(() -> {
+            System.out.println("   This should not print");
+            return "ran";
+        }, 200, TimeUnit.MILLISECONDS);
+        try {
+            queued.get();
+        } catch (ExecutionException e) {
+            System.out.println("   Queued task: " + e.getCause().getClass().getSimpleName()
+                    + " while still waiting behind the 500 ms task");
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println();
+    }
+
+    // Busy work in 10 ms slices, checking the current deadline between slices
+    private static int crunch(long millis, AtomicLong lastWork) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        int slices = 0;
+        while (System.nanoTime() < end) {
+            Deadline.check();
+            long sliceEnd = System.nanoTime() + 10_000_000;
+            while (System.nanoTime() < sliceEnd) {
+                Thread.onSpinWait();
+            }
+            lastWork.set(System.nanoTime());
+            slices++;
+        }
+        return slices;
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
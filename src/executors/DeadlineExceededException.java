@@ -0,0 +1,12 @@
+package executors;
+
+import java.util.concurrent.TimeUnit;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(Deadline deadline) {
+        super("Deadline exceeded by " + -deadline.remaining(TimeUnit.MILLISECONDS) + " ms");
+    }
+}
@@ -0,0 +1,191 @@
+package executors;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Fixed-size pool that propagates deadlines. Every task captures the
+ * submitter's current Deadline (tightened by an explicit timeout if one is
+ * given) and runs with it installed, so anything it submits inherits the same
+ * budget. When the deadline passes, a timer fails the task's future with
+ * DeadlineExceededException: a task still queued is then skipped without
+ * running, and a running one is interrupted. Plain execute(Runnable) calls
+ * without a deadline in effect pass through untouched; with one, the command
+ * is still tracked against it, and whatever it throws, expiry included, is
+ * rethrown to afterExecute and the worker's UncaughtExceptionHandler.
+ */
+public class DeadlineExecutor extends ThreadPoolExecutor {
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final LongAdder expired = new LongAdder();
+
+    public DeadlineExecutor(int threads) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "DeadlineTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public <T> Future<T> submit(Callable<T> task, long timeout, TimeUnit unit) {
+        DeadlineTask<T> future = new DeadlineTask<>(task,
+                Deadline.earliest(Deadline.current(), Deadline.after(timeout, unit)));
+        execute(future);
+        return future;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> task) {
+        return new DeadlineTask<>(task, Deadline.current());
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable task, T value) {
+        return new DeadlineTask<>(Executors.callable(task, value), Deadline.current());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!(command instanceof DeadlineTask) && Deadline.current() != null) {
+            command = new PlainTask(command, Deadline.current());
+        }
+        if (command instanceof DeadlineTask) {
+            DeadlineTask<?> task = (DeadlineTask<?>) command;
+            task.arm();
+            try {
+                super.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.disarm();
+                throw e;
+            }
+        } else {
+            super.execute(command);
+        }
+    }
+
+    // Tasks failed by their deadline, whether still queued or already running
+    public long expiredTasks() {
+        return expired.sum();
+    }
+
+    @Override
+    protected void terminated() {
+        timer.shutdownNow();
+        super.terminated();
+    }
+
+    private class DeadlineTask<T> extends FutureTask<T> {
+        private final Deadline deadline;
+        private ScheduledFuture<?> expiry;
+        private Thread runner;
+        private boolean interruptedByDeadline;
+
+        DeadlineTask(Callable<T> task, Deadline deadline) {
+            // Deadline.call installs the deadline for the task's duration and fails fast if it already passed
+            super(deadline == null ? task : () -> deadline.call(task));
+            this.deadline = deadline;
+        }
+
+        void arm() {
+            if (deadline == null) {
+                return;
+            }
+            ScheduledFuture<?> scheduled = timer.schedule(this::expire,
+                    Math.max(0, deadline.remaining(TimeUnit.NANOSECONDS)), TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                expiry = scheduled;
+            }
+            if (isDone()) {
+                scheduled.cancel(false);
+            }
+        }
+
+        void disarm() {
+            ScheduledFuture<?> scheduled;
+            synchronized (this) {
+                scheduled = expiry;
+            }
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        private void expire() {
+            if (isDone()) {
+                return;
+            }
+            DeadlineExceededException timeout = new DeadlineExceededException(deadline);
+            setException(timeout);
+            // setException does nothing if the task completed in the meantime; only a deadline that won counts
+            if (state() != State.FAILED || exceptionNow() != timeout) {
+                return;
+            }
+            expired.increment();
+            synchronized (this) {
+                if (runner != null) {
+                    interruptedByDeadline = true;
+                    runner.interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            try {
+                super.run();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    if (interruptedByDeadline) {
+                        // Our interrupt must not leak into the next task this worker runs
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void done() {
+            disarm();
+        }
+    }
+
+    // No caller holds a future for an execute()d command, so its outcome is rethrown as a plain pool would
+    private final class PlainTask extends DeadlineTask<Void> {
+
+        PlainTask(Runnable command, Deadline deadline) {
+            super(Executors.callable(command, null), deadline);
+        }
+
+        @Override
+        public void run() {
+            super.run();
+            if (state() != State.FAILED) {
+                return;
+            }
+            Throwable failure = exceptionNow();
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new RuntimeException(failure);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package executors;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/*
+ * allOf/anyOf replacements for large fan-outs. CompletableFuture.allOf builds
+ * a balanced tree of relay futures over its inputs and still leaves the
+ * caller to gather the values; these combinators instead register one shared
+ * callback object on every input and count completions in a single long
+ * (successes in the low half, failures in the high half). Nothing is stored
+ * per input: when the target count is reached, the values are read back from
+ * the inputs in one pass. Inputs that are already complete are counted
+ * directly, without registering anything.
+ *
+ * all:    every input succeeds; fails fast on the first failure.
+ * any:    first successful value; fails only once every input has failed.
+ * firstN: any n successful values (in input order), failing once n can no
+ *         longer be reached.
+ * quorum: firstN with a majority of the inputs.
+ */
+public final class FutureCombinators {
+
+    private FutureCombinators() {
+    }
+
+    public static <T> CompletableFuture<List<T>> all(List<? extends CompletableFuture<? extends T>> futures) {
+        CountingLatch<T, List<T>> latch = new CountingLatch<>(futures, futures.size(), 0, false);
+        return latch.start();
+    }
+
+    public static <T> CompletableFuture<T> any(List<? extends CompletableFuture<? extends T>> futures) {
+        if (futures.isEmpty()) {
+            return CompletableFuture.failedFuture(new NoSuchElementException("No futures to wait for"));
+        }
+        CountingLatch<T, T> latch = new CountingLatch<>(futures, 1, futures.size() - 1, true);
+        return latch.start();
+    }
+
+    public static <T> CompletableFuture<List<T>> firstN(List<? extends CompletableFuture<? extends T>> futures, int n) {
+        if (n < 0 || n > futures.size()) {
+            throw new IllegalArgumentException("n must be between 0 and " + futures.size() + ": " + n);
+        }
+        CountingLatch<T, List<T>> latch = new CountingLatch<>(futures, n, futures.size() - n, false);
+        return latch.start();
+    }
+
+    public static <T> CompletableFuture<List<T>> quorum(List<? extends CompletableFuture<? extends T>> futures) {
+        return firstN(futures, futures.size() / 2 + 1);
+    }
+
+    private static final class CountingLatch<T, R> extends CompletableFuture<R> implements BiConsumer<T, Throwable> {
+        private static final long FAILURE = 1L << 32;
+        private static final VarHandle COUNTS;
+
+        static {
+            try {
+                COUNTS = MethodHandles.lookup().findVarHandle(CountingLatch.class, "counts", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final List<? extends CompletableFuture<? extends T>> inputs;
+        private final int required;
+        private final int tolerated;
+        private final boolean single;
+        @SuppressWarnings("unused")
+        private volatile long counts;
+
+        CountingLatch(List<? extends CompletableFuture<? extends T>> inputs, int required, int tolerated,
+                      boolean single) {
+            this.inputs = inputs;
+            this.required = required;
+            this.tolerated = tolerated;
+            this.single = single;
+        }
+
+        CompletableFuture<R> start() {
+            if (required == 0) {
+                finish(null);
+                return this;
+            }
+            for (CompletableFuture<? extends T> input : inputs) {
+                if (isDone()) {
+                    // Decided already: later inputs need no callback at all
+                    break;
+                }
+                switch (input.state()) {
+                    case SUCCESS -> accept(input.resultNow(), null);
+                    case FAILED -> accept(null, input.exceptionNow());
+                    case CANCELLED -> accept(null, new CancellationException());
+                    default -> input.whenComplete(this);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void accept(T value, Throwable error) {
+            if (isDone()) {
+                return;
+            }
+            if (error == null) {
+                int before = (int) (long) COUNTS.getAndAdd(this, 1L);
+                if (before == required - 1) {
+                    finish(value);
+                }
+            } else {
+                int before = (int) ((long) COUNTS.getAndAdd(this, FAILURE) >>> 32);
+                if (before == tolerated) {
+                    completeExceptionally(error);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void finish(T lastValue) {
+            if (single) {
+                complete((R) lastValue);
+                return;
+            }
+            // Collected lazily, once: at least `required` inputs have succeeded by now
+            Object[] values = new Object[required];
+            int found = 0;
+            boolean everyInput = required == inputs.size();
+            for (CompletableFuture<? extends T> input : inputs) {
+                if (found == required) {
+                    break;
+                }
+                if (everyInput || input.isDone() && !input.isCompletedExceptionally()) {
+                    values[found++] = input.join();
+                }
+            }
+            complete((R) (found == 0 ? Collections.emptyList() : Arrays.asList(values)));
+        }
+    }
+}
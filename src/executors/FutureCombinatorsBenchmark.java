@@ -0,0 +1,110 @@
+package executors;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class FutureCombinatorsBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        System.out.println("=== Future Combinators Benchmark ===\n");
+
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        System.out.println("Inputs are incomplete when combined, then completed in random order on one thread.");
+        System.out.println("B/input = bytes allocated by combining and collecting, beyond creating and completing the inputs;");
+        System.out.println("last -> result = time from the final complete() call until the combined value is available\n");
+
+        Function<List<CompletableFuture<Integer>>, CompletableFuture<?>> jdkAll = futures ->
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                        .thenApply(ignored -> {
+                            List<Integer> values = new ArrayList<>(futures.size());
+                            for (CompletableFuture<Integer> future : futures) {
+                                values.add(future.join());
+                            }
+                            return values;
+                        });
+        Function<List<CompletableFuture<Integer>>, CompletableFuture<?>> jdkAny = futures ->
+                CompletableFuture.anyOf(futures.toArray(new CompletableFuture<?>[0]));
+
+        // Warm-up, not reported
+        for (int n : new int[]{10, 1_000}) {
+            measure(n, budget / 4, null);
+            measure(n, budget / 4, jdkAll);
+            measure(n, budget / 4, FutureCombinators::all);
+            measure(n, budget / 4, jdkAny);
+            measure(n, budget / 4, FutureCombinators::any);
+            measure(n, budget / 4, FutureCombinators::quorum);
+        }
+
+        for (int n : new int[]{10, 1_000, 100_000}) {
+            System.out.println(n + " inputs:");
+            System.out.printf("   %-38s %12s %16s %16s%n", "combinator", "B/input", "ns/input total", "last -> result");
+            double[] baseline = measure(n, budget, null);
+            report("allOf + collect values", n, budget, jdkAll, baseline);
+            report("FutureCombinators.all", n, budget, FutureCombinators::all, baseline);
+            report("anyOf", n, budget, jdkAny, baseline);
+            report("FutureCombinators.any", n, budget, FutureCombinators::any, baseline);
+            report("FutureCombinators.quorum (n/2+1)", n, budget, FutureCombinators::quorum, baseline);
+            System.out.println();
+        }
+        System.out.println("Future combinators benchmark completed!");
+    }
+
+    private static void report(String name, int n, long budget,
+                               Function<List<CompletableFuture<Integer>>, CompletableFuture<?>> combinator,
+                               double[] baseline) {
+        double[] result = measure(n, budget, combinator);
+        System.out.printf("   %-38s %12.1f %16.1f %13.0f ns%n", name, result[0] - baseline[0],
+                result[1] - baseline[1], result[2]);
+    }
+
+    // Returns {bytes per input, ns per input, mean ns from last completion to result}
+    private static double[] measure(int n, long budget,
+                                    Function<List<CompletableFuture<Integer>>, CompletableFuture<?>> combinator) {
+        int rounds = (int) Math.max(3, budget / n);
+        Random random = new Random(9);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        long bytes = 0;
+        long nanos = 0;
+        long lastToResult = 0;
+        for (int round = 0; round < rounds; round++) {
+            // Shuffling outside the measured region
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                futures.add(new CompletableFuture<>());
+            }
+            CompletableFuture<?> combined = combinator == null ? null : combinator.apply(futures);
+            for (int i = 0; i < n - 1; i++) {
+                futures.get(order[i]).complete(i);
+            }
+            long lastStart = System.nanoTime();
+            futures.get(order[n - 1]).complete(n - 1);
+            Object value = combined == null ? null : combined.join();
+            long end = System.nanoTime();
+            bytes += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            nanos += end - start;
+            lastToResult += end - lastStart;
+            sink += value == null ? 0 : value.hashCode();
+        }
+        return new double[]{(double) bytes / rounds / n, (double) nanos / rounds / n, (double) lastToResult / rounds};
+    }
+}
@@ -0,0 +1,95 @@
+package executors;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HedgingBenchmark {
+
+    // Backend calls that actually started running, across every attempt
+    private static final AtomicLong backendCalls = new AtomicLong();
+
+    interface Client {
+        String call(Callable<String> backend) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Hedged Requests Benchmark ===\n");
+
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        double stallPercent = args.length > 2 ? Double.parseDouble(args[2]) : 3.0;
+
+        System.out.println("Injected backend latency: 4-6 ms normally, 40-80 ms for " + stallPercent
+                + "% of calls (GC pause, slow replica)");
+        System.out.println(clients + " closed-loop clients x " + requestsPerClient + " requests; load = backend calls per request\n");
+
+        Callable<String> backend = () -> {
+            backendCalls.incrementAndGet();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            boolean stall = random.nextDouble() * 100 < stallPercent;
+            long micros = stall ? random.nextLong(40_000, 80_000) : random.nextLong(4_000, 6_000);
+            TimeUnit.MICROSECONDS.sleep(micros);
+            return "ok";
+        };
+
+        ExecutorService pool = Executors.newCachedThreadPool();
+        System.out.printf("%-30s %9s %9s %9s %9s %8s %10s%n", "strategy", "p50", "p95", "p99", "max", "load", "hedges");
+
+        run("no hedging", clients, requestsPerClient, backend, Callable::call, null);
+        run("invokeAny, 2 copies", clients, requestsPerClient, backend,
+                task -> pool.invokeAny(List.of(task, task)), null);
+
+        for (double percentile : new double[]{95, 90}) {
+            try (HedgingExecutor hedging = new HedgingExecutor(pool, percentile, 1024, 0.1)) {
+                // Learn the latency distribution before measuring
+                run(null, clients, 50, backend, task -> hedging.submit(task).get(), null);
+                run("hedged at p" + (int) percentile + ", 10% budget", clients, requestsPerClient, backend,
+                        task -> hedging.submit(task).get(), hedging);
+            }
+        }
+
+        pool.shutdownNow();
+        System.out.println();
+        System.out.println("Hedged requests benchmark completed!");
+    }
+
+    static void run(String name, int clients, int requestsPerClient, Callable<String> backend, Client client,
+                    HedgingExecutor hedging) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        long hedgesBefore = hedging == null ? 0 : hedging.hedges();
+        backendCalls.set(0);
+
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            threads[c] = new Thread(() -> {
+                for (int i = 0; i < requestsPerClient; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        client.call(backend);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    latency.record(System.nanoTime() - start);
+                }
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (name == null) {
+            return;
+        }
+        long requests = (long) clients * requestsPerClient;
+        String hedges = hedging == null ? "-"
+                : String.format("%.1f%%", 100.0 * (hedging.hedges() - hedgesBefore) / requests);
+        System.out.printf("%-30s %6.1f ms %6.1f ms %6.1f ms %6.1f ms %7.2fx %10s%n", name,
+                latency.percentile(50) / 1e6, latency.percentile(95) / 1e6, latency.percentile(99) / 1e6,
+                latency.max() / 1e6, (double) backendCalls.get() / requests, hedges);
+    }
+}
@@ -0,0 +1,232 @@
+package executors;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Speculative execution for tail latency: each request starts one attempt and
+ * arms a timer for the learned latency percentile of recent attempts (p95 by
+ * default). Only if the primary is still running when the timer fires is a
+ * backup launched; the first attempt to finish completes the request and the
+ * other is cancelled with interruption. Backups are capped by a token budget
+ * that earns budgetRatio tokens per request, so a slowdown that hits every
+ * attempt cannot double the backend load. Until the window has minSamples
+ * latencies nothing is hedged.
+ */
+public class HedgingExecutor implements AutoCloseable {
+
+    private static final int MIN_SAMPLES = 100;
+    private static final long TOKEN = 1000;
+
+    private final ExecutorService pool;
+    private final double percentile;
+    private final long budgetPerRequest;
+    private final long budgetCap;
+    private final ScheduledThreadPoolExecutor timer;
+
+    // Sliding window of completed attempt latencies; the threshold is re-derived every window/8 samples
+    private final long[] window;
+    private int windowNext;
+    private long windowCount;
+    private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+
+    private final AtomicLong budget = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+
+    public HedgingExecutor(ExecutorService pool) {
+        this(pool, 95.0, 1024, 0.1);
+    }
+
+    public HedgingExecutor(ExecutorService pool, double percentile, int windowSize, double budgetRatio) {
+        if (percentile <= 0 || percentile >= 100 || windowSize < 8 || budgetRatio < 0) {
+            throw new IllegalArgumentException("Invalid hedging parameters");
+        }
+        this.pool = pool;
+        this.percentile = percentile;
+        this.window = new long[windowSize];
+        this.budgetPerRequest = (long) (budgetRatio * TOKEN);
+        // Allows a short burst of hedges after a quiet period, but no more than 10 in a row
+        this.budgetCap = 10 * TOKEN;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "HedgeTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    // Hedges by running the same task again
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, task);
+    }
+
+    // Hedges with an alternative, e.g. the same call against another replica
+    public <T> CompletableFuture<T> submit(Callable<T> primary, Callable<T> backup) {
+        requests.increment();
+        budget.accumulateAndGet(budgetPerRequest, (current, earned) -> Math.min(budgetCap, current + earned));
+        Request<T> request = new Request<>();
+        request.primary = launch(request, primary, false);
+        long delay = hedgeDelayNanos;
+        if (delay != Long.MAX_VALUE && !request.isDone()) {
+            request.pending.incrementAndGet();
+            request.timer = timer.schedule(() -> hedge(request, backup), delay, TimeUnit.NANOSECONDS);
+        }
+        // Whoever finishes first (or a caller cancel) stops everything else
+        request.whenComplete((value, error) -> request.cancelRest());
+        return request;
+    }
+
+    private <T> void hedge(Request<T> request, Callable<T> backup) {
+        if (request.isDone()) {
+            return;
+        }
+        if (!takeToken()) {
+            hedgesDenied.increment();
+            request.attemptFinished(null);
+            return;
+        }
+        hedges.increment();
+        request.backup = launch(request, backup, true);
+        // The hedge slot counted in pending is now owned by the backup attempt's own count
+        request.attemptFinished(null);
+        if (request.isDone()) {
+            request.cancelRest();
+        }
+    }
+
+    private <T> Future<?> launch(Request<T> request, Callable<T> task, boolean isBackup) {
+        attempts.increment();
+        request.pending.incrementAndGet();
+        try {
+            return pool.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    T value = task.call();
+                    record(System.nanoTime() - start);
+                    if (request.complete(value) && isBackup) {
+                        hedgeWins.increment();
+                    }
+                    request.attemptFinished(null);
+                } catch (Throwable t) {
+                    if (request.isDone() && !request.isCompletedExceptionally()) {
+                        // Interrupted as the loser: it took at least this long, and dropping it
+                        // would let the learned percentile ratchet down over time
+                        record(System.nanoTime() - start);
+                    }
+                    request.attemptFinished(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            request.attemptFinished(e);
+            return null;
+        }
+    }
+
+    private boolean takeToken() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private void record(long nanos) {
+        long[] snapshot = null;
+        synchronized (window) {
+            window[windowNext] = nanos;
+            windowNext = (windowNext + 1) % window.length;
+            windowCount++;
+            if (windowCount >= MIN_SAMPLES && windowCount % Math.max(1, window.length / 8) == 0) {
+                snapshot = Arrays.copyOf(window, (int) Math.min(windowCount, window.length));
+            }
+        }
+        if (snapshot != null) {
+            // Sorting happens outside the lock; a stale threshold for a few requests is harmless
+            Arrays.sort(snapshot);
+            int rank = (int) Math.ceil(percentile / 100.0 * snapshot.length) - 1;
+            hedgeDelayNanos = snapshot[Math.max(0, rank)];
+        }
+    }
+
+    public long hedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    // Every attempt started on the pool, primaries and backups
+    public long attempts() {
+        return attempts.sum();
+    }
+
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    public long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long hedgesDenied() {
+        return hedgesDenied.sum();
+    }
+
+    // Stops the hedge timer; the pool is left to its owner
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private static final class Request<T> extends CompletableFuture<T> {
+        // Attempts still running plus an armed hedge timer; the request fails only when this reaches zero
+        final AtomicInteger pending = new AtomicInteger();
+        volatile Future<?> primary;
+        volatile Future<?> backup;
+        volatile ScheduledFuture<?> timer;
+        volatile Throwable lastFailure;
+
+        void attemptFinished(Throwable failure) {
+            if (failure != null) {
+                lastFailure = failure;
+            }
+            if (pending.decrementAndGet() == 0 && !isDone()) {
+                Throwable cause = lastFailure;
+                completeExceptionally(cause != null ? cause : new IllegalStateException("No attempt completed"));
+            }
+        }
+
+        void cancelRest() {
+            ScheduledFuture<?> armed = timer;
+            if (armed != null) {
+                armed.cancel(false);
+            }
+            Future<?> first = primary;
+            if (first != null) {
+                first.cancel(true);
+            }
+            Future<?> second = backup;
+            if (second != null) {
+                second.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package executors;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class InstrumentedThreadPoolDemo {
+
+    private static final AtomicLong counter = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Instrumented Thread Pool Demo ===\n");
+
+        demoCustomPoolStats();
+        demoJmx();
+        demoAllocation(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+
+        System.out.println("Instrumented thread pool demo completed!");
+    }
+
+    // Same shape as ThreadPoolDemo.demoCustomThreadPool(), but the pool reports what happened
+    static void demoCustomPoolStats() throws InterruptedException {
+        System.out.println("1. Core 2, max 4, queue capacity 2, CallerRunsPolicy, 8 tasks of 200 ms:");
+        InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(2, 4, 60L, TimeUnit.SECONDS, 2,
+                namedFactory("InstrumentedThread-", null), new ThreadPoolExecutor.CallerRunsPolicy());
+        for (int i = 1; i <= 8; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println("   " + executor.snapshot().toString().replace("\n", "\n   "));
+        System.out.println("   (caller-run tasks are counted as rejections and do not appear in the histograms)");
+        System.out.println();
+    }
+
+    static void demoJmx() throws InterruptedException, JMException {
+        System.out.println("2. Reading the same stats through the platform MBean server:");
+        InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(4, 4, 0L, TimeUnit.SECONDS, 1024,
+                namedFactory("JmxThread-", null), new ThreadPoolExecutor.AbortPolicy());
+        executor.registerMBean("demo");
+        for (int i = 0; i < 500; i++) {
+            int sleepMicros = i % 50 == 0 ? 5_000 : 200;
+            executor.execute(() -> sleepMicros(sleepMicros));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = InstrumentedThreadPoolExecutor.objectName("demo");
+        System.out.println("   " + name);
+        for (String attribute : new String[]{"CompletedTaskCount", "QueueHighWaterMark", "RejectedCount",
+                "QueueWaitP50Micros", "QueueWaitP99Micros", "ExecutionP50Micros", "ExecutionP99Micros",
+                "ExecutionMaxMicros"}) {
+            System.out.printf("   %-20s %s%n", attribute, server.getAttribute(name, attribute));
+        }
+        executor.unregisterMBean("demo");
+        System.out.println();
+    }
+
+    static void demoAllocation(int tasks) throws InterruptedException {
+        System.out.println("3. Bytes allocated per execute() across submitter and workers (" + tasks + " tasks):");
+        Runnable task = counter::incrementAndGet;
+        for (String kind : new String[]{"LinkedBlockingQueue", "ArrayBlockingQueue", "Instrumented"}) {
+            List<Thread> threads = new CopyOnWriteArrayList<>();
+            threads.add(Thread.currentThread());
+            ThreadFactory factory = namedFactory(kind + "-", threads);
+            ThreadPoolExecutor executor;
+            if (kind.equals("LinkedBlockingQueue")) {
+                executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(4096), factory);
+            } else if (kind.equals("ArrayBlockingQueue")) {
+                executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4096), factory);
+            } else {
+                executor = new InstrumentedThreadPoolExecutor(2, 2, 0L, TimeUnit.SECONDS, 4096, factory,
+                        new ThreadPoolExecutor.AbortPolicy());
+            }
+            executor.prestartAllCoreThreads();
+
+            // Warm-up so JIT and first-use ThreadLocals are out of the measurement
+            submitAll(executor, task, tasks / 10);
+            long before = allocatedBytes(threads);
+            submitAll(executor, task, tasks);
+            long after = allocatedBytes(threads);
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            System.out.printf("   %-20s %8.1f bytes/task%n", kind, (double) (after - before) / tasks);
+            if (executor instanceof InstrumentedThreadPoolExecutor) {
+                InstrumentedThreadPoolExecutor instrumented = (InstrumentedThreadPoolExecutor) executor;
+                System.out.println("   " + instrumented.queueWait().count() + " queue waits and "
+                        + instrumented.execution().count() + " executions recorded, queue high-water mark "
+                        + instrumented.getQueueHighWaterMark());
+            }
+        }
+        System.out.println();
+    }
+
+    private static void submitAll(ThreadPoolExecutor executor, Runnable task, int tasks) {
+        long target = executor.getCompletedTaskCount() + tasks;
+        for (int i = 0; i < tasks; i++) {
+            while (executor.getQueue().remainingCapacity() == 0) {
+                Thread.yield();
+            }
+            executor.execute(task);
+        }
+        while (executor.getCompletedTaskCount() < target) {
+            Thread.yield();
+        }
+    }
+
+    private static long allocatedBytes(List<Thread> threads) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (Thread thread : threads) {
+            total += Math.max(0, bean.getThreadAllocatedBytes(thread.threadId()));
+        }
+        return total;
+    }
+
+    private static ThreadFactory namedFactory(String prefix, List<Thread> created) {
+        AtomicLong count = new AtomicLong();
+        return r -> {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            if (created != null) {
+                created.add(thread);
+            }
+            return thread;
+        };
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package executors;
+
+import java.lang.management.ManagementFactory;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+ * ThreadPoolExecutor that records queue-wait and execution-time histograms,
+ * rejection counts and the queue-depth high-water mark without allocating per
+ * task. The work queue is a fixed ring that stores each task's enqueue time in
+ * a parallel long[] and hands it to the dequeuing worker through a per-thread
+ * slot, so plain execute(Runnable) calls are timed without wrapping them.
+ * Stats are available as a Snapshot or over JMX via registerMBean().
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor
+        implements InstrumentedThreadPoolMXBean {
+
+    // [0] enqueue time of the task this worker just dequeued (0 if it was handed over directly), [1] start time
+    private static final ThreadLocal<long[]> WORKER_SLOT = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final TimestampedQueue queue;
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final CountingHandler rejections;
+
+    public InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                          int queueCapacity, ThreadFactory threadFactory,
+                                          RejectedExecutionHandler handler) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, new TimestampedQueue(queueCapacity),
+                threadFactory, new CountingHandler(handler));
+    }
+
+    private InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                           TimestampedQueue queue, ThreadFactory threadFactory,
+                                           CountingHandler rejections) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, queue, threadFactory, rejections);
+        this.queue = queue;
+        this.rejections = rejections;
+    }
+
+    // Swaps the policy behind the counter so rejections stay counted
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException();
+        }
+        rejections.delegate = handler;
+    }
+
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        return rejections.delegate;
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        long[] slot = WORKER_SLOT.get();
+        long now = System.nanoTime();
+        queueWait.record(slot[0] == 0 ? 0 : now - slot[0]);
+        slot[0] = 0;
+        slot[1] = now;
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        execution.record(System.nanoTime() - WORKER_SLOT.get()[1]);
+        super.afterExecute(r, t);
+    }
+
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName(name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register MBean " + name, e);
+        }
+    }
+
+    public void unregisterMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister MBean " + name, e);
+        }
+    }
+
+    public static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("executors:type=InstrumentedThreadPool,name=" + ObjectName.quote(name));
+    }
+
+    public LatencyHistogram queueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram execution() {
+        return execution;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getQueueHighWaterMark() {
+        return queue.highWaterMark;
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejections.count.get();
+    }
+
+    @Override
+    public double getQueueWaitP50Micros() {
+        return queueWait.percentile(50) / 1e3;
+    }
+
+    @Override
+    public double getQueueWaitP99Micros() {
+        return queueWait.percentile(99) / 1e3;
+    }
+
+    @Override
+    public double getQueueWaitMaxMicros() {
+        return queueWait.max() / 1e3;
+    }
+
+    @Override
+    public double getExecutionP50Micros() {
+        return execution.percentile(50) / 1e3;
+    }
+
+    @Override
+    public double getExecutionP99Micros() {
+        return execution.percentile(99) / 1e3;
+    }
+
+    @Override
+    public double getExecutionMaxMicros() {
+        return execution.max() / 1e3;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public static final class Snapshot {
+        public final int poolSize;
+        public final int activeCount;
+        public final long completed;
+        public final int queueDepth;
+        public final int queueHighWaterMark;
+        public final long rejected;
+        public final long queueWaitP50;
+        public final long queueWaitP99;
+        public final long queueWaitMax;
+        public final long executionP50;
+        public final long executionP99;
+        public final long executionMax;
+
+        Snapshot(InstrumentedThreadPoolExecutor executor) {
+            this.poolSize = executor.getPoolSize();
+            this.activeCount = executor.getActiveCount();
+            this.completed = executor.getCompletedTaskCount();
+            this.queueDepth = executor.getQueueDepth();
+            this.queueHighWaterMark = executor.getQueueHighWaterMark();
+            this.rejected = executor.getRejectedCount();
+            this.queueWaitP50 = executor.queueWait.percentile(50);
+            this.queueWaitP99 = executor.queueWait.percentile(99);
+            this.queueWaitMax = executor.queueWait.max();
+            this.executionP50 = executor.execution.percentile(50);
+            this.executionP99 = executor.execution.percentile(99);
+            this.executionMax = executor.execution.max();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pool=%d active=%d completed=%d queue=%d (high-water %d) rejected=%d%n"
+                            + "queue wait p50=%.1fμs p99=%.1fμs max=%.1fμs | execution p50=%.1fμs p99=%.1fμs max=%.1fμs",
+                    poolSize, activeCount, completed, queueDepth, queueHighWaterMark, rejected,
+                    queueWaitP50 / 1e3, queueWaitP99 / 1e3, queueWaitMax / 1e3,
+                    executionP50 / 1e3, executionP99 / 1e3, executionMax / 1e3);
+        }
+    }
+
+    static final class CountingHandler implements RejectedExecutionHandler {
+        final AtomicLong count = new AtomicLong();
+        volatile RejectedExecutionHandler delegate;
+
+        CountingHandler(RejectedExecutionHandler delegate) {
+            if (delegate == null) {
+                throw new NullPointerException();
+            }
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            count.incrementAndGet();
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+
+    // Bounded ring of tasks with their enqueue times, guarded by one lock like ArrayBlockingQueue
+    static final class TimestampedQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+        private final Runnable[] items;
+        private final long[] enqueued;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private int head;
+        private int count;
+        volatile int highWaterMark;
+
+        TimestampedQueue(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            items = new Runnable[capacity];
+            enqueued = new long[capacity];
+        }
+
+        private void enqueue(Runnable task) {
+            int tail = (head + count) % items.length;
+            items[tail] = task;
+            enqueued[tail] = System.nanoTime();
+            count++;
+            if (count > highWaterMark) {
+                highWaterMark = count;
+            }
+            notEmpty.signal();
+        }
+
+        private Runnable dequeue() {
+            Runnable task = items[head];
+            // Handed to beforeExecute on this worker thread
+            WORKER_SLOT.get()[0] = enqueued[head];
+            items[head] = null;
+            head = (head + 1) % items.length;
+            count--;
+            notFull.signal();
+            return task;
+        }
+
+        @Override
+        public boolean offer(Runnable task) {
+            if (task == null) {
+                throw new NullPointerException();
+            }
+            lock.lock();
+            try {
+                if (count == items.length) {
+                    return false;
+                }
+                enqueue(task);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+            if (task == null) {
+                throw new NullPointerException();
+            }
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (count == items.length) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                enqueue(task);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void put(Runnable task) throws InterruptedException {
+            if (task == null) {
+                throw new NullPointerException();
+            }
+            lock.lockInterruptibly();
+            try {
+                while (count == items.length) {
+                    notFull.await();
+                }
+                enqueue(task);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            lock.lock();
+            try {
+                return count == 0 ? null : dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    notEmpty.await();
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable peek() {
+            lock.lock();
+            try {
+                return count == 0 ? null : items[head];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            lock.lock();
+            try {
+                return items.length - count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Used by ThreadPoolExecutor.remove() and purge(); shifts later entries down to close the gap
+        @Override
+        public boolean remove(Object o) {
+            lock.lock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    int index = (head + i) % items.length;
+                    if (items[index].equals(o)) {
+                        for (int j = i; j < count - 1; j++) {
+                            int from = (head + j + 1) % items.length;
+                            int to = (head + j) % items.length;
+                            items[to] = items[from];
+                            enqueued[to] = enqueued[from];
+                        }
+                        items[(head + count - 1) % items.length] = null;
+                        count--;
+                        notFull.signal();
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> target) {
+            return drainTo(target, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> target, int maxElements) {
+            lock.lock();
+            try {
+                int drained = 0;
+                while (count > 0 && drained < maxElements) {
+                    target.add(items[head]);
+                    items[head] = null;
+                    head = (head + 1) % items.length;
+                    count--;
+                    drained++;
+                }
+                if (drained > 0) {
+                    notFull.signalAll();
+                }
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Weakly consistent: iterates over a copy taken under the lock; remove() goes back to the
+        // queue because ThreadPoolExecutor.purge() removes cancelled tasks through the iterator
+        @Override
+        public Iterator<Runnable> iterator() {
+            List<Runnable> copy;
+            lock.lock();
+            try {
+                copy = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    copy.add(items[(head + i) % items.length]);
+                }
+            } finally {
+                lock.unlock();
+            }
+            Iterator<Runnable> snapshot = copy.iterator();
+            return new Iterator<Runnable>() {
+                private Runnable last;
+
+                @Override
+                public boolean hasNext() {
+                    return snapshot.hasNext();
+                }
+
+                @Override
+                public Runnable next() {
+                    last = snapshot.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    TimestampedQueue.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+    }
+}
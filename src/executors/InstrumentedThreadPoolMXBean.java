@@ -0,0 +1,28 @@
+package executors;
+
+// Attributes published by InstrumentedThreadPoolExecutor.registerMBean()
+public interface InstrumentedThreadPoolMXBean {
+    int getPoolSize();
+
+    int getActiveCount();
+
+    long getCompletedTaskCount();
+
+    int getQueueDepth();
+
+    int getQueueHighWaterMark();
+
+    long getRejectedCount();
+
+    double getQueueWaitP50Micros();
+
+    double getQueueWaitP99Micros();
+
+    double getQueueWaitMaxMicros();
+
+    double getExecutionP50Micros();
+
+    double getExecutionP99Micros();
+
+    double getExecutionMaxMicros();
+}
@@ -0,0 +1,123 @@
+package executors;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+ * Runs tasks for the same key one at a time in submission order while all keys
+ * share one underlying executor. A key only has an entry in the map while it
+ * has work queued or running; the entry is removed atomically (inside
+ * ConcurrentHashMap.compute) the moment its queue drains, so idle keys cost
+ * nothing. Each dispatch to the underlying executor runs up to batchSize tasks
+ * for its key before yielding the thread to other keys.
+ */
+public class KeyedSerialExecutor<K> {
+
+    private final Executor delegate;
+    private final int batchSize;
+    private final ConcurrentHashMap<K, KeyQueue> queues = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor delegate, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+    }
+
+    public void execute(K key, Runnable task) {
+        if (key == null || task == null) {
+            throw new NullPointerException();
+        }
+        Object[] created = new Object[1];
+        queues.compute(key, (k, queue) -> {
+            if (queue == null) {
+                // No runner for this key: the new runner starts with this task as its first batch
+                queue = new KeyQueue(k, new Runnable[]{task});
+                created[0] = queue;
+            } else {
+                queue.enqueue(task);
+            }
+            return queue;
+        });
+        if (created[0] != null) {
+            try {
+                delegate.execute((Runnable) created[0]);
+            } catch (RejectedExecutionException e) {
+                // Drops anything queued behind this task too, since no runner exists to run it
+                queues.remove(key, created[0]);
+                throw e;
+            }
+        }
+    }
+
+    public <T> Future<T> submit(K key, Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(key, future);
+        return future;
+    }
+
+    public int activeKeys() {
+        return queues.size();
+    }
+
+    private final class KeyQueue implements Runnable {
+        private final K key;
+        // Only touched inside queues.compute for this key, which serializes access
+        private ArrayDeque<Runnable> waiting;
+        private Runnable[] batch;
+
+        KeyQueue(K key, Runnable[] batch) {
+            this.key = key;
+            this.batch = batch;
+        }
+
+        void enqueue(Runnable task) {
+            if (waiting == null) {
+                waiting = new ArrayDeque<>(4);
+            }
+            waiting.add(task);
+        }
+
+        @Override
+        public void run() {
+            for (Runnable task : batch) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, t);
+                }
+            }
+            batch = null;
+            // Take the next batch, or drop this key from the map if nothing arrived meanwhile
+            queues.compute(key, (k, queue) -> {
+                if (waiting == null || waiting.isEmpty()) {
+                    return null;
+                }
+                int count = Math.min(batchSize, waiting.size());
+                batch = new Runnable[count];
+                for (int i = 0; i < count; i++) {
+                    batch[i] = waiting.poll();
+                }
+                if (waiting.isEmpty()) {
+                    waiting = null;
+                }
+                return queue;
+            });
+            if (batch != null) {
+                try {
+                    delegate.execute(this);
+                } catch (RejectedExecutionException e) {
+                    queues.remove(key, this);
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package executors;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class KeyedSerialExecutorBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Per-Key Serial Executor Benchmark ===\n");
+
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int eventsPerKey = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        System.out.println(threads + " pool threads, ~1 μs of work per event, keys interleaved in random order\n");
+        // Warm-up pass, not reported
+        runKeyed(eventOrder(100_000, 4), 100_000, threads, 16, false);
+
+        System.out.println("1. " + keys + " distinct keys x " + eventsPerKey + " events:");
+        workload(eventOrder(keys, eventsPerKey), keys, threads);
+
+        int hotKeys = 1_000;
+        int hotEvents = keys * eventsPerKey / hotKeys;
+        System.out.println("2. " + hotKeys + " hot keys x " + hotEvents + " events (deep per-key queues):");
+        workload(eventOrder(hotKeys, hotEvents), hotKeys, threads);
+
+        System.out.println("Striped single-thread executors also keep FIFO, but a slow key blocks every key in its stripe.");
+        System.out.println("Per-key serial executor benchmark completed!");
+    }
+
+    static void workload(int[] order, int keys, int threads) throws InterruptedException {
+        System.out.printf("   %-26s %12s %12s %12s %12s %14s%n", "executor", "events/s", "violations", "peak keys",
+                "keys left", "heap at idle");
+        for (int batch : new int[]{1, 16, 64}) {
+            runKeyed(order, keys, threads, batch, true);
+        }
+        runStriped(order, keys, threads);
+        System.out.println();
+    }
+
+    // Each key appears eventsPerKey times; a shuffle interleaves keys the way live traffic would
+    static int[] eventOrder(int keys, int eventsPerKey) {
+        int[] order = new int[keys * eventsPerKey];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i % keys;
+        }
+        Random random = new Random(1);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    static void runKeyed(int[] order, int keys, int threads, int batchSize, boolean report)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        KeyedSerialExecutor<Integer> executor = new KeyedSerialExecutor<>(pool, batchSize);
+        int[] submitted = new int[keys];
+        int[] processed = new int[keys];
+        LongAdder violations = new LongAdder();
+        AtomicLong done = new AtomicLong();
+        long peakKeys = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < order.length; i++) {
+            int key = order[i];
+            int sequence = submitted[key]++;
+            executor.execute(key, () -> {
+                // Serial per key, so plain int[] slots are safe; handoffs go through the map's locks
+                if (processed[key] != sequence) {
+                    violations.increment();
+                }
+                processed[key] = sequence + 1;
+                work();
+                done.incrementAndGet();
+            });
+            if ((i & 0xFFFF) == 0) {
+                peakKeys = Math.max(peakKeys, executor.activeKeys());
+            }
+        }
+        while (done.get() < order.length) {
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - start;
+        long heap = report ? usedHeap() : 0;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        if (report) {
+            System.out.printf("   %-26s %12.0f %12d %12d %12d %11.1f MB%n", "keyed, batch " + batchSize,
+                    order.length / (elapsed / 1e9), violations.sum(), peakKeys, executor.activeKeys(), heap / 1e6);
+        }
+    }
+
+    static void runStriped(int[] order, int keys, int threads) throws InterruptedException {
+        ExecutorService[] stripes = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            stripes[i] = Executors.newSingleThreadExecutor();
+        }
+        int[] submitted = new int[keys];
+        int[] processed = new int[keys];
+        LongAdder violations = new LongAdder();
+        AtomicLong done = new AtomicLong();
+
+        long start = System.nanoTime();
+        for (int key : order) {
+            int sequence = submitted[key]++;
+            stripes[key % threads].execute(() -> {
+                if (processed[key] != sequence) {
+                    violations.increment();
+                }
+                processed[key] = sequence + 1;
+                work();
+                done.incrementAndGet();
+            });
+        }
+        while (done.get() < order.length) {
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - start;
+        long heap = usedHeap();
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+            stripe.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        System.out.printf("   %-26s %12.0f %12d %12s %12s %11.1f MB%n", threads + " striped single threads",
+                order.length / (elapsed / 1e9), violations.sum(), "-", "-", heap / 1e6);
+    }
+
+    private static void work() {
+        long x = 0;
+        for (int i = 0; i < 200; i++) {
+            x += i * 31L;
+        }
+        sink = x;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(50);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,280 @@
+package executors;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * RunnableFuture that allocates nothing beyond itself. Completion status,
+ * "a task is running", "a thread is parked in the waiter slot" and "extra
+ * waiters are on the monitor" all live in one int updated with a VarHandle.
+ * The common case of a single thread calling get() parks in the waiter slot
+ * with no wait node; further concurrent waiters fall back to wait/notifyAll
+ * on the future's own monitor, which is only touched when that flag is set.
+ * Runnables are stored as-is instead of being wrapped in a Callable adapter.
+ * cancel(true) follows FutureTask: the runner is interrupted and run() does
+ * not return until the interrupt has been delivered, so it cannot leak into
+ * the worker's next task.
+ */
+public class LeanFuture<T> implements RunnableFuture<T> {
+
+    private static final int NEW = 0;
+    private static final int NORMAL = 1;
+    private static final int EXCEPTIONAL = 2;
+    private static final int CANCELLED = 3;
+    private static final int INTERRUPTING = 4;
+    private static final int INTERRUPTED = 5;
+    private static final int STATUS = 0x7;
+    private static final int RUNNING = 0x8;
+    private static final int WAITER = 0x10;
+    private static final int MULTI = 0x20;
+
+    private static final VarHandle STATE;
+    private static final VarHandle RUNNER;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATE = lookup.findVarHandle(LeanFuture.class, "state", int.class);
+            RUNNER = lookup.findVarHandle(LeanFuture.class, "runner", Thread.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int state;
+    // Callable or Runnable; cleared once run so the task can be collected
+    private Object task;
+    // The value for Runnables before completion, then the result or Throwable
+    private Object outcome;
+    // Release/acquire only: a cancel that races the start of run() may simply not interrupt
+    private Thread runner;
+    private volatile Thread waiter;
+
+    public LeanFuture(Callable<T> callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+        this.task = callable;
+    }
+
+    public LeanFuture(Runnable runnable, T result) {
+        if (runnable == null) {
+            throw new NullPointerException();
+        }
+        this.task = runnable;
+        this.outcome = result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+        int s = state;
+        // Waiter flags may already be set by get() callers; only status and RUNNING decide who runs
+        while (true) {
+            if ((s & (STATUS | RUNNING)) != NEW) {
+                return;
+            }
+            int witness = (int) STATE.compareAndExchange(this, s, s | RUNNING);
+            if (witness == s) {
+                break;
+            }
+            s = witness;
+        }
+        RUNNER.setRelease(this, Thread.currentThread());
+        try {
+            Object work = task;
+            Object result;
+            if (work instanceof Callable) {
+                result = ((Callable<T>) work).call();
+            } else {
+                ((Runnable) work).run();
+                result = outcome;
+            }
+            complete(NORMAL, result);
+        } catch (Throwable t) {
+            complete(EXCEPTIONAL, t);
+        } finally {
+            RUNNER.setRelease(this, (Thread) null);
+            task = null;
+            while ((state & STATUS) == INTERRUPTING) {
+                // cancel(true) is between reading runner and interrupting it
+                Thread.yield();
+            }
+        }
+    }
+
+    private boolean complete(int status, Object value) {
+        int s = state;
+        while ((s & STATUS) == NEW) {
+            // Plain write published by the CAS's volatile semantics
+            outcome = value;
+            int next = (s & (WAITER | MULTI)) | status;
+            int witness = (int) STATE.compareAndExchange(this, s, next);
+            if (witness == s) {
+                wake(s);
+                return true;
+            }
+            s = witness;
+        }
+        return false;
+    }
+
+    private void wake(int previous) {
+        if ((previous & WAITER) != 0) {
+            LockSupport.unpark(waiter);
+        }
+        if ((previous & MULTI) != 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        int s = state;
+        while ((s & STATUS) == NEW) {
+            int next = (s & (WAITER | MULTI)) | (mayInterruptIfRunning ? INTERRUPTING : CANCELLED);
+            int witness = (int) STATE.compareAndExchange(this, s, next);
+            if (witness == s) {
+                if (mayInterruptIfRunning) {
+                    Thread t = (Thread) RUNNER.getAcquire(this);
+                    if (t != null) {
+                        t.interrupt();
+                    }
+                    // Keep the waiter flags; only the status moves on
+                    int current = state;
+                    while (!STATE.compareAndSet(this, current, (current & ~STATUS) | INTERRUPTED)) {
+                        current = state;
+                    }
+                }
+                task = null;
+                wake(s);
+                return true;
+            }
+            s = witness;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return (state & STATUS) >= CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return (state & STATUS) != NEW;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        int s = state;
+        if ((s & STATUS) == NEW) {
+            s = await(false, 0L);
+        }
+        return report(s);
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        int s = state;
+        if ((s & STATUS) == NEW) {
+            s = await(true, unit.toNanos(timeout));
+            if ((s & STATUS) == NEW) {
+                throw new TimeoutException();
+            }
+        }
+        return report(s);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T report(int s) throws ExecutionException {
+        int status = s & STATUS;
+        if (status == NORMAL) {
+            return (T) outcome;
+        }
+        if (status == EXCEPTIONAL) {
+            throw new ExecutionException((Throwable) outcome);
+        }
+        throw new CancellationException();
+    }
+
+    // Returns the state once done, or a NEW state if the timed wait ran out
+    private int await(boolean timed, long nanos) throws InterruptedException {
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        Thread me = Thread.currentThread();
+        int s = state;
+        while ((s & STATUS) == NEW) {
+            if ((s & WAITER) == 0) {
+                if (STATE.compareAndSet(this, s, s | WAITER)) {
+                    // Claim first, then publish: a completer that saw the flag reads this volatile after its CAS
+                    waiter = me;
+                    return parkInSlot(timed, deadline);
+                }
+            } else if ((s & MULTI) != 0 || STATE.compareAndSet(this, s, s | MULTI)) {
+                return waitOnMonitor(timed, deadline);
+            }
+            s = state;
+        }
+        return s;
+    }
+
+    private int parkInSlot(boolean timed, long deadline) throws InterruptedException {
+        int s;
+        while (((s = state) & STATUS) == NEW) {
+            if (Thread.interrupted()) {
+                releaseSlot();
+                throw new InterruptedException();
+            }
+            if (timed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return releaseSlot();
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        return s;
+    }
+
+    // Frees the waiter slot for another thread, unless completion got there first
+    private int releaseSlot() {
+        int s = state;
+        while ((s & STATUS) == NEW) {
+            int witness = (int) STATE.compareAndExchange(this, s, s & ~WAITER);
+            if (witness == s) {
+                return witness & ~WAITER;
+            }
+            s = witness;
+        }
+        return s;
+    }
+
+    private int waitOnMonitor(boolean timed, long deadline) throws InterruptedException {
+        synchronized (this) {
+            int s;
+            while (((s = state) & STATUS) == NEW) {
+                if (timed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return s;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } else {
+                    wait();
+                }
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package executors;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class LeanFutureBenchmark {
+
+    interface Submitter {
+        Future<Long> submit(LeanThreadPoolExecutor pool);
+    }
+
+    private static final Callable<Long> CALLABLE = LeanFutureBenchmark::work;
+    private static final Supplier<Long> SUPPLIER = LeanFutureBenchmark::work;
+    private static final Runnable RUNNABLE = LeanFutureBenchmark::work;
+    private static final Long RESULT = 7L;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Lean Future Allocation Benchmark ===\n");
+
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int window = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+
+        System.out.println(tasks + " trivial tasks on one worker, " + window + " in flight, then get() on each");
+        System.out.println("Same pool and ArrayBlockingQueue for every row, and shared task instances,");
+        System.out.println("so the bytes below are the future machinery alone\n");
+
+        // What AbstractExecutorService.submit does without the newTaskFor override
+        Submitter futureTask = pool -> {
+            FutureTask<Long> future = new FutureTask<>(CALLABLE);
+            pool.execute(future);
+            return future;
+        };
+        Submitter lean = pool -> pool.submitLean(CALLABLE);
+        Submitter completable = pool -> CompletableFuture.supplyAsync(SUPPLIER, pool);
+        Submitter completableStage = pool -> CompletableFuture.supplyAsync(SUPPLIER, pool).thenApply(x -> x + 1);
+        // FutureTask wraps a Runnable in an Executors.callable adapter; LeanFuture stores it as-is
+        Submitter futureTaskRunnable = pool -> {
+            FutureTask<Long> future = new FutureTask<>(RUNNABLE, RESULT);
+            pool.execute(future);
+            return future;
+        };
+        Submitter leanRunnable = pool -> pool.submitLean(RUNNABLE, RESULT);
+        Submitter completableRunnable = pool -> CompletableFuture.runAsync(RUNNABLE, pool).thenApply(v -> RESULT);
+
+        // Warm-up, not reported
+        for (Submitter submitter : List.of(futureTask, lean, completable, completableStage)) {
+            run(null, submitter, tasks / 4, window);
+        }
+
+        System.out.println("1. Callable, " + window + " in flight (get() rarely has to wait):");
+        header();
+        run("FutureTask (submit)", futureTask, tasks, window);
+        run("LeanFuture (submitLean)", lean, tasks, window);
+        run("CompletableFuture.supplyAsync", completable, tasks, window);
+        run("CompletableFuture + thenApply", completableStage, tasks, window);
+        System.out.println();
+
+        System.out.println("2. Callable, submit then get() each (get() parks almost every time):");
+        header();
+        run("FutureTask (submit)", futureTask, tasks / 4, 1);
+        run("LeanFuture (submitLean)", lean, tasks / 4, 1);
+        run("CompletableFuture.supplyAsync", completable, tasks / 4, 1);
+        System.out.println();
+
+        System.out.println("3. Runnable with a result, " + window + " in flight:");
+        header();
+        run("FutureTask (submit)", futureTaskRunnable, tasks, window);
+        run("LeanFuture (submitLean)", leanRunnable, tasks, window);
+        run("CompletableFuture.runAsync", completableRunnable, tasks, window);
+
+        System.out.println();
+        System.out.println("Lean future benchmark completed!");
+    }
+
+    static void run(String name, Submitter submitter, int tasks, int window) throws Exception {
+        List<Thread> workers = new ArrayList<>();
+        LeanThreadPoolExecutor pool = new LeanThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(window * 2), r -> {
+                    Thread thread = new Thread(r, "LeanWorker-" + workers.size());
+                    workers.add(thread);
+                    return thread;
+                });
+        pool.prestartAllCoreThreads();
+        Future<?>[] inFlight = new Future<?>[window];
+
+        long gcBefore = gcCount();
+        long submitterBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long workerBefore = allocated(workers);
+        long start = System.nanoTime();
+        long sum = 0;
+        for (int done = 0; done < tasks; done += window) {
+            for (int i = 0; i < window; i++) {
+                inFlight[i] = submitter.submit(pool);
+            }
+            for (int i = 0; i < window; i++) {
+                sum += (Long) inFlight[i].get();
+                inFlight[i] = null;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long submitterBytes = THREADS.getCurrentThreadAllocatedBytes() - submitterBefore;
+        long workerBytes = allocated(workers) - workerBefore;
+        long gcs = gcCount() - gcBefore;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        if (name != null) {
+            System.out.printf("   %-34s %14.1f %14.1f %12.0f %8d%n", name, (double) submitterBytes / tasks,
+                    (double) workerBytes / tasks, tasks / (elapsed / 1e9), gcs);
+        }
+        if (sum == 42) {
+            System.out.println("unreachable");
+        }
+    }
+
+    private static void header() {
+        System.out.printf("   %-34s %14s %14s %12s %8s%n", "future", "submitter B/op", "worker B/op", "tasks/s", "GCs");
+    }
+
+    private static Long work() {
+        return RESULT;
+    }
+
+    private static long allocated(List<Thread> threads) {
+        long total = 0;
+        for (Thread thread : threads) {
+            total += THREADS.getThreadAllocatedBytes(thread.threadId());
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+}
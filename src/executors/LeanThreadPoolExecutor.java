@@ -0,0 +1,52 @@
+package executors;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ThreadPoolExecutor whose submit() methods produce LeanFutures instead of
+ * FutureTasks. submitLean() returns the concrete type; the inherited submit()
+ * overloads return the same objects typed as Future.
+ */
+public class LeanThreadPoolExecutor extends ThreadPoolExecutor {
+
+    public LeanThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
+    }
+
+    public LeanThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory);
+    }
+
+    public <T> LeanFuture<T> submitLean(Callable<T> task) {
+        LeanFuture<T> future = new LeanFuture<>(task);
+        execute(future);
+        return future;
+    }
+
+    public LeanFuture<Void> submitLean(Runnable task) {
+        return submitLean(task, null);
+    }
+
+    public <T> LeanFuture<T> submitLean(Runnable task, T result) {
+        LeanFuture<T> future = new LeanFuture<>(task, result);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> task) {
+        return new LeanFuture<>(task);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable task, T value) {
+        return new LeanFuture<>(task, value);
+    }
+}
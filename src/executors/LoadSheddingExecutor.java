@@ -0,0 +1,278 @@
+package executors;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Thread pool that sheds load instead of pushing it back onto submitters.
+ * The work queue applies controlled delay (CoDel): workers track the minimum
+ * time tasks sat in the queue over each interval, and once even that minimum
+ * exceeds the target the queue is standing rather than absorbing a burst.
+ * While standing, any task that waited longer than the target is failed with
+ * ShedException; otherwise only tasks older than a full interval are. Tasks
+ * submitted with a deadline are also shed at admission and at dequeue once
+ * the expected wait plus service time can no longer meet it. Plain
+ * Runnables passed to execute() that are shed, or that throw, are reported
+ * to the worker's UncaughtExceptionHandler.
+ */
+public class LoadSheddingExecutor extends ThreadPoolExecutor {
+
+    public static class ShedException extends RejectedExecutionException {
+        private static final long serialVersionUID = 1L;
+
+        public ShedException(String message) {
+            super(message);
+        }
+
+        // Shedding happens exactly when the system is overloaded, so skip the stack walk
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private final CoDelQueue queue;
+    private final AtomicLong rejectedAtAdmission = new AtomicLong();
+
+    public LoadSheddingExecutor(int threads, int capacity, long target, long interval, TimeUnit unit) {
+        this(threads, new CoDelQueue(capacity, unit.toNanos(target), unit.toNanos(interval)), new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "SheddingWorker-" + threadCount.incrementAndGet());
+            }
+        });
+    }
+
+    private LoadSheddingExecutor(int threads, CoDelQueue queue, ThreadFactory threadFactory) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, threadFactory, new AbortPolicy());
+        this.queue = queue;
+    }
+
+    public <T> Future<T> submit(Callable<T> task, long deadline, TimeUnit unit) {
+        SheddableTask<T> future = new SheddableTask<>(task, System.nanoTime() + unit.toNanos(deadline));
+        execute(future);
+        return future;
+    }
+
+    public Future<?> submit(Runnable task, long deadline, TimeUnit unit) {
+        SheddableTask<Void> future = new SheddableTask<>(task, null, System.nanoTime() + unit.toNanos(deadline));
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        SheddableTask<?> task = command instanceof SheddableTask
+                ? (SheddableTask<?>) command
+                : new PlainTask(command);
+        long now = System.nanoTime();
+        if (task.deadlineNanos != Long.MAX_VALUE) {
+            // Fail fast when the backlog ahead of this task already rules out its deadline
+            long service = queue.serviceEstimateNanos();
+            long expectedWait = (long) queue.size() * service / getMaximumPoolSize();
+            if (now + expectedWait + service > task.deadlineNanos) {
+                rejectedAtAdmission.incrementAndGet();
+                ShedException e = new ShedException("Deadline cannot be met: expected wait "
+                        + TimeUnit.NANOSECONDS.toMillis(expectedWait) + " ms");
+                task.shed(e);
+                throw e;
+            }
+        }
+        task.enqueuedNanos = now;
+        super.execute(task);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new SheddableTask<>(callable, Long.MAX_VALUE);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new SheddableTask<>(runnable, value, Long.MAX_VALUE);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        ((SheddableTask<?>) r).startedNanos = System.nanoTime();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        queue.recordService(System.nanoTime() - ((SheddableTask<?>) r).startedNanos);
+        super.afterExecute(r, t);
+    }
+
+    public boolean isOverloaded() {
+        return queue.overloaded;
+    }
+
+    public long shedByQueueDelay() {
+        return queue.shedByDelay.get();
+    }
+
+    public long shedByDeadline() {
+        return queue.shedByDeadline.get();
+    }
+
+    public long rejectedAtAdmission() {
+        return rejectedAtAdmission.get();
+    }
+
+    static class SheddableTask<V> extends FutureTask<V> {
+        final long deadlineNanos;
+        volatile long enqueuedNanos;
+        long startedNanos;
+
+        SheddableTask(Callable<V> callable, long deadlineNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        SheddableTask(Runnable runnable, V result, long deadlineNanos) {
+            super(runnable, result);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void shed(ShedException reason) {
+            setException(reason);
+        }
+    }
+
+    /*
+     * A Runnable handed to execute(). Nobody holds a future for it, so it
+     * behaves as in a plain pool: the command runs directly and anything it
+     * throws reaches afterExecute and the worker's UncaughtExceptionHandler,
+     * and being shed is reported to that handler too.
+     */
+    static final class PlainTask extends SheddableTask<Void> {
+        private final Runnable command;
+
+        PlainTask(Runnable command) {
+            super(command, null, Long.MAX_VALUE);
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+
+        @Override
+        void shed(ShedException reason) {
+            super.shed(reason);
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, reason);
+        }
+    }
+
+    static final class CoDelQueue extends LinkedBlockingQueue<Runnable> {
+        private static final long serialVersionUID = 1L;
+
+        private final long targetNanos;
+        private final long intervalNanos;
+        final AtomicLong shedByDelay = new AtomicLong();
+        final AtomicLong shedByDeadline = new AtomicLong();
+        // A ReentrantLock rather than a bare monitor object: it is Serializable, like the queue around it
+        private final ReentrantLock control = new ReentrantLock();
+        private long intervalStart = System.nanoTime();
+        private long minDelay = Long.MAX_VALUE;
+        volatile boolean overloaded;
+        // Exponentially weighted service time, seeded at a tenth of the target so admission starts permissive
+        private volatile long serviceEstimateNanos;
+
+        CoDelQueue(int capacity, long targetNanos, long intervalNanos) {
+            super(capacity);
+            this.targetNanos = targetNanos;
+            this.intervalNanos = intervalNanos;
+            this.serviceEstimateNanos = Math.max(1, targetNanos / 10);
+        }
+
+        long serviceEstimateNanos() {
+            return serviceEstimateNanos;
+        }
+
+        void recordService(long nanos) {
+            long current = serviceEstimateNanos;
+            serviceEstimateNanos = current + (nanos - current) / 8;
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            while (true) {
+                Runnable task = admit(super.take());
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (true) {
+                Runnable task = super.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (task == null) {
+                    return null;
+                }
+                task = admit(task);
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+
+        // Returns the task if it should run, or null after shedding it
+        private Runnable admit(Runnable runnable) {
+            SheddableTask<?> task = (SheddableTask<?>) runnable;
+            long now = System.nanoTime();
+            long delay = now - task.enqueuedNanos;
+            boolean standing;
+            control.lock();
+            try {
+                minDelay = Math.min(minDelay, delay);
+                if (now - intervalStart >= intervalNanos) {
+                    overloaded = minDelay > targetNanos;
+                    minDelay = Long.MAX_VALUE;
+                    intervalStart = now;
+                }
+                standing = overloaded;
+            } finally {
+                control.unlock();
+            }
+            if (task.isDone()) {
+                return null;
+            }
+            if (now + serviceEstimateNanos > task.deadlineNanos) {
+                shedByDeadline.incrementAndGet();
+                task.shed(new ShedException("Deadline passed after " + TimeUnit.NANOSECONDS.toMillis(delay)
+                        + " ms in queue"));
+                return null;
+            }
+            if (delay > (standing ? targetNanos : intervalNanos)) {
+                shedByDelay.incrementAndGet();
+                task.shed(new ShedException("Queue delay " + TimeUnit.NANOSECONDS.toMillis(delay)
+                        + " ms exceeded " + TimeUnit.NANOSECONDS.toMillis(standing ? targetNanos : intervalNanos)
+                        + " ms"));
+                return null;
+            }
+            return task;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/*
+ * Thread-per-core runtime: N event-loop workers, each owning one partition of
+ * state and one multi-producer single-consumer inbox. Tasks are routed by key
+ * hash, so a partition's state is only ever touched by its own thread and
+ * needs no locks. Tasks can send follow-up work to other partitions through
+ * the Context; those messages collect in per-destination outboxes and are
+ * delivered as one batch per destination at the end of each loop iteration.
+ */
+public class PartitionedExecutor<S> {
+
+    public interface Task<S> {
+        void run(S state, Context<S> context);
+    }
+
+    public interface Context<S> {
+        int partition();
+
+        // Delivered to the key's partition in a batch once the current drain finishes
+        void send(Object key, Task<S> task);
+    }
+
+    private static final int MAX_DRAIN = 256;
+
+    private final List<Worker> workers;
+    // Tasks accepted but not yet run; one update per external task or per delivered batch
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private volatile boolean shutdown;
+
+    public PartitionedExecutor(int partitions, IntFunction<S> stateFactory) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        workers = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            workers.add(new Worker(i, stateFactory.apply(i)));
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    public int partitionOf(Object key) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), workers.size());
+    }
+
+    public void execute(Object key, Task<S> task) {
+        // Counted before the shutdown check: a worker only exits once it sees shutdown with nothing
+        // in flight, so either it sees this increment or we see the flag and back out
+        inFlight.incrementAndGet();
+        if (shutdown) {
+            if (inFlight.decrementAndGet() == 0) {
+                // A worker may have parked on our transient count instead of exiting
+                for (Worker worker : workers) {
+                    LockSupport.unpark(worker.thread);
+                }
+            }
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        workers.get(partitionOf(key)).deliver(task);
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(worker.thread, remaining);
+            }
+            if (worker.thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Only meaningful once the executor is quiescent, e.g. after awaitTermination
+    public S state(int partition) {
+        return workers.get(partition).state;
+    }
+
+    public int partitions() {
+        return workers.size();
+    }
+
+    public long batchesSent() {
+        return batchesSent.sum();
+    }
+
+    public long messagesSent() {
+        return messagesSent.sum();
+    }
+
+    private final class Worker implements Context<S>, Runnable {
+        final int index;
+        final S state;
+        final Thread thread;
+        final MpscQueue<Object> inbox = new MpscQueue<>();
+        final List<List<Task<S>>> outboxes = new ArrayList<>();
+        volatile boolean sleeping;
+
+        Worker(int index, S state) {
+            this.index = index;
+            this.state = state;
+            this.thread = new Thread(this, "Partition-" + index);
+        }
+
+        void deliver(Object message) {
+            inbox.offer(message);
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public int partition() {
+            return index;
+        }
+
+        @Override
+        public void send(Object key, Task<S> task) {
+            if (outboxes.isEmpty()) {
+                for (int i = 0; i < workers.size(); i++) {
+                    outboxes.add(new ArrayList<>());
+                }
+            }
+            outboxes.get(partitionOf(key)).add(task);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            while (true) {
+                int drained = 0;
+                long completed = 0;
+                Object message;
+                while (drained < MAX_DRAIN && (message = inbox.poll()) != null) {
+                    drained++;
+                    if (message instanceof Batch) {
+                        List<Task<S>> tasks = ((Batch<S>) message).tasks;
+                        for (Task<S> task : tasks) {
+                            runTask(task);
+                        }
+                        completed += tasks.size();
+                    } else {
+                        runTask((Task<S>) message);
+                        completed++;
+                    }
+                }
+                flushOutboxes();
+                if (completed > 0 && inFlight.addAndGet(-completed) == 0 && shutdown) {
+                    for (Worker worker : workers) {
+                        LockSupport.unpark(worker.thread);
+                    }
+                }
+                if (drained == 0) {
+                    if (shutdown && inFlight.get() == 0) {
+                        return;
+                    }
+                    // Announce sleep before the final emptiness check so a concurrent deliver() sees it
+                    sleeping = true;
+                    if (inbox.isEmpty() && !(shutdown && inFlight.get() == 0)) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private void runTask(Task<S> task) {
+            try {
+                task.run(state, this);
+            } catch (RuntimeException e) {
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+
+        private void flushOutboxes() {
+            for (int i = 0; i < outboxes.size(); i++) {
+                List<Task<S>> outbox = outboxes.get(i);
+                if (outbox.isEmpty()) {
+                    continue;
+                }
+                outboxes.set(i, new ArrayList<>());
+                // Counted before delivery so the receiver can never take inFlight below zero
+                inFlight.addAndGet(outbox.size());
+                batchesSent.increment();
+                messagesSent.add(outbox.size());
+                workers.get(i).deliver(new Batch<>(outbox));
+            }
+        }
+    }
+
+    private static final class Batch<S> {
+        final List<Task<S>> tasks;
+
+        Batch(List<Task<S>> tasks) {
+            this.tasks = tasks;
+        }
+    }
+
+    // Vyukov-style linked MPSC queue: producers swap the tail, the single consumer walks from the head
+    static final class MpscQueue<E> {
+        private static final class Node<E> {
+            E value;
+            volatile Node<E> next;
+
+            Node(E value) {
+                this.value = value;
+            }
+        }
+
+        private final AtomicReference<Node<E>> tail;
+        private Node<E> head;
+
+        MpscQueue() {
+            Node<E> stub = new Node<>(null);
+            head = stub;
+            tail = new AtomicReference<>(stub);
+        }
+
+        void offer(E value) {
+            Node<E> node = new Node<>(value);
+            tail.getAndSet(node).next = node;
+        }
+
+        // Consumer only
+        E poll() {
+            Node<E> next = head.next;
+            if (next == null) {
+                return null;
+            }
+            E value = next.value;
+            next.value = null;
+            head = next;
+            return value;
+        }
+
+        // Consumer only; also false while a producer has swapped the tail but not linked its node yet
+        boolean isEmpty() {
+            return tail.get() == head;
+        }
+    }
+}
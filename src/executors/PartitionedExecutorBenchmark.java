@@ -0,0 +1,155 @@
+package executors;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PartitionedExecutorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Thread-per-Core Partitioned Executor Benchmark ===\n");
+
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int transferPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int producers = 2;
+
+        System.out.println(threads + " workers, " + producers + " producers, " + ops + " ops per run: counter increments, "
+                + transferPercent + "% of them transfers that also credit a second key");
+        System.out.println("No hardware counters from Java; ns/op as the key space outgrows the caches is the cache-miss proxy");
+        System.out.println("(run under `perf stat -e cache-misses` for real counts)\n");
+
+        // Warm-up, not reported
+        runShared(threads, producers, 100_000, ops / 4, transferPercent, false);
+        runPartitioned(threads, producers, 100_000, ops / 4, transferPercent, false);
+
+        System.out.printf("%-12s %-36s %12s %10s %12s%n", "keys", "executor", "ops/s", "ns/op", "msgs/batch");
+        for (int keys : new int[]{1_000, 100_000, 1_000_000, 4_000_000}) {
+            runShared(threads, producers, keys, ops, transferPercent, true);
+            runPartitioned(threads, producers, keys, ops, transferPercent, true);
+        }
+        System.out.println();
+        System.out.println("Partitioned executor benchmark completed!");
+    }
+
+    static int[][] keyStreams(int producers, int keys, int ops) {
+        int[][] streams = new int[producers][ops / producers * 2];
+        Random random = new Random(3);
+        for (int[] stream : streams) {
+            for (int i = 0; i < stream.length; i++) {
+                stream[i] = random.nextInt(keys);
+            }
+        }
+        return streams;
+    }
+
+    static void runShared(int threads, int producers, int keys, int ops, int transferPercent, boolean report)
+            throws InterruptedException {
+        int[][] streams = keyStreams(producers, keys, ops);
+        ConcurrentHashMap<Integer, AtomicLong> state = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        Thread[] submitters = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int[] stream = streams[p];
+            submitters[p] = new Thread(() -> {
+                for (int i = 0; i < stream.length / 2; i++) {
+                    int key = stream[2 * i];
+                    int other = stream[2 * i + 1];
+                    boolean transfer = i % 100 < transferPercent;
+                    pool.execute(() -> {
+                        state.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+                        if (transfer) {
+                            state.computeIfAbsent(other, k -> new AtomicLong()).incrementAndGet();
+                        }
+                    });
+                }
+            });
+            submitters[p].start();
+        }
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (AtomicLong value : state.values()) {
+            total += value.get();
+        }
+        if (report) {
+            print(keys, "fixed pool + ConcurrentHashMap", ops, elapsed, "-");
+            check(total, streams, transferPercent);
+        }
+    }
+
+    static void runPartitioned(int threads, int producers, int keys, int ops, int transferPercent, boolean report)
+            throws InterruptedException {
+        int[][] streams = keyStreams(producers, keys, ops);
+        PartitionedExecutor<HashMap<Integer, long[]>> executor =
+                new PartitionedExecutor<>(threads, partition -> new HashMap<>());
+
+        long start = System.nanoTime();
+        Thread[] submitters = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int[] stream = streams[p];
+            submitters[p] = new Thread(() -> {
+                for (int i = 0; i < stream.length / 2; i++) {
+                    int key = stream[2 * i];
+                    int other = stream[2 * i + 1];
+                    boolean transfer = i % 100 < transferPercent;
+                    executor.execute(key, (map, context) -> {
+                        // Owned by this partition's thread alone, so a plain HashMap and long[] suffice
+                        map.computeIfAbsent(key, k -> new long[1])[0]++;
+                        if (transfer) {
+                            context.send(other, (otherMap, ignored) -> otherMap.computeIfAbsent(other, k -> new long[1])[0]++);
+                        }
+                    });
+                }
+            });
+            submitters[p].start();
+        }
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        executor.shutdown();
+        executor.awaitTermination(60, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (int i = 0; i < executor.partitions(); i++) {
+            for (long[] value : executor.state(i).values()) {
+                total += value[0];
+            }
+        }
+        if (report) {
+            String perBatch = executor.batchesSent() == 0 ? "-"
+                    : String.format("%.1f", (double) executor.messagesSent() / executor.batchesSent());
+            print(keys, "partitioned (thread per core)", ops, elapsed, perBatch);
+            check(total, streams, transferPercent);
+        }
+    }
+
+    private static void print(int keys, String name, int ops, long elapsedNanos, String perBatch) {
+        System.out.printf("%-12d %-36s %12.0f %10.0f %12s%n", keys, name, ops / (elapsedNanos / 1e9),
+                (double) elapsedNanos / ops, perBatch);
+    }
+
+    private static void check(long total, int[][] streams, int transferPercent) {
+        long expected = 0;
+        for (int[] stream : streams) {
+            for (int i = 0; i < stream.length / 2; i++) {
+                expected += i % 100 < transferPercent ? 2 : 1;
+            }
+        }
+        if (total != expected) {
+            System.out.println("   state mismatch: expected " + expected + " increments, found " + total);
+        }
+    }
+}
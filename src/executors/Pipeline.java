@@ -0,0 +1,184 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/*
+ * Request pipeline that decides where each stage runs instead of hopping to
+ * the common pool at every async step. A stage is declared INLINE (cheap,
+ * runs wherever the previous stage ran), CPU (runs on the CPU executor) or
+ * IO (blocking, runs on a virtual thread). Stages are fused into segments as
+ * the pipeline is built: inline stages join the segment before them and
+ * consecutive CPU or IO stages share one task, so a request only changes
+ * threads where the kind of work changes. Leading inline stages run on the
+ * caller. A single state object per request carries the value from segment
+ * to segment; a stage that throws fails the returned future and skips the
+ * rest. Pipelines are immutable: every call returns a new one.
+ */
+public final class Pipeline<I, O> {
+
+    public enum Kind {
+        INLINE, CPU, IO
+    }
+
+    private static final ThreadFactory IO_THREADS = Thread.ofVirtual().name("pipeline-io-", 0).factory();
+    private static final Executor VIRTUAL_THREADS = command -> IO_THREADS.newThread(command).start();
+
+    private static final class Stage {
+        final Kind kind;
+        final Function<Object, Object> step;
+
+        Stage(Kind kind, Function<Object, Object> step) {
+            this.kind = kind;
+            this.step = step;
+        }
+    }
+
+    // Stages that run back to back in one task; INLINE here means "on the caller"
+    private static final class Segment {
+        final Kind kind;
+        final Function<Object, Object>[] steps;
+
+        @SuppressWarnings("unchecked")
+        Segment(Kind kind, List<Function<Object, Object>> steps) {
+            this.kind = kind;
+            this.steps = (Function<Object, Object>[]) steps.toArray(new Function<?, ?>[0]);
+        }
+    }
+
+    private final List<Stage> stages;
+    private final Segment[] segments;
+    private final Executor cpu;
+    private final Executor io;
+    private final LongAdder handoffs = new LongAdder();
+
+    private Pipeline(List<Stage> stages, Executor cpu, Executor io) {
+        this.stages = stages;
+        this.segments = fuse(stages);
+        this.cpu = cpu;
+        this.io = io;
+    }
+
+    // Empty pipeline on the common pool and virtual threads
+    public static <T> Pipeline<T, T> start() {
+        return new Pipeline<>(List.of(), ForkJoinPool.commonPool(), VIRTUAL_THREADS);
+    }
+
+    public <R> Pipeline<I, R> inline(Function<? super O, ? extends R> step) {
+        return then(Kind.INLINE, step);
+    }
+
+    public <R> Pipeline<I, R> cpu(Function<? super O, ? extends R> step) {
+        return then(Kind.CPU, step);
+    }
+
+    public <R> Pipeline<I, R> io(Function<? super O, ? extends R> step) {
+        return then(Kind.IO, step);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<I, R> then(Kind kind, Function<? super O, ? extends R> step) {
+        List<Stage> next = new ArrayList<>(stages);
+        next.add(new Stage(kind, (Function<Object, Object>) step));
+        return new Pipeline<>(next, cpu, io);
+    }
+
+    // Same stages on other executors; blocking stages should still go somewhere that tolerates blocking
+    public Pipeline<I, O> on(Executor cpu, Executor io) {
+        return new Pipeline<>(stages, cpu, io);
+    }
+
+    public CompletableFuture<O> run(I input) {
+        Run run = new Run(input);
+        if (segments.length > 0 && segments[0].kind == Kind.INLINE) {
+            run.run();
+        } else {
+            run.dispatch();
+        }
+        return run.result;
+    }
+
+    // Times a request was handed to an executor, over all runs so far
+    public long handoffs() {
+        return handoffs.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder();
+        for (Segment segment : segments) {
+            if (!plan.isEmpty()) {
+                plan.append(" -> ");
+            }
+            plan.append(segment.kind == Kind.INLINE ? "caller" : segment.kind.name())
+                    .append('(').append(segment.steps.length).append(')');
+        }
+        return plan.isEmpty() ? "empty" : plan.toString();
+    }
+
+    private static Segment[] fuse(List<Stage> stages) {
+        List<Segment> segments = new ArrayList<>();
+        Kind current = Kind.INLINE;
+        List<Function<Object, Object>> steps = new ArrayList<>();
+        for (Stage stage : stages) {
+            if (stage.kind != Kind.INLINE && stage.kind != current) {
+                if (!steps.isEmpty()) {
+                    segments.add(new Segment(current, steps));
+                }
+                current = stage.kind;
+                steps = new ArrayList<>();
+            }
+            steps.add(stage.step);
+        }
+        if (!steps.isEmpty()) {
+            segments.add(new Segment(current, steps));
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    private final class Run implements Runnable {
+        final CompletableFuture<O> result = new CompletableFuture<>();
+        // Handed between threads only through Executor.execute, which orders the writes
+        private Object value;
+        private int next;
+
+        Run(Object input) {
+            this.value = input;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (Function<Object, Object> step : segments[next++].steps) {
+                    value = step.apply(value);
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+            dispatch();
+        }
+
+        @SuppressWarnings("unchecked")
+        void dispatch() {
+            if (next == segments.length) {
+                result.complete((O) value);
+                return;
+            }
+            Executor executor = segments[next].kind == Kind.CPU ? cpu : io;
+            handoffs.increment();
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package executors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+public class PipelineBenchmark {
+
+    /*
+     * The value passed from stage to stage. Every stage calls visit() first,
+     * which counts a hop whenever it runs on a different thread than the
+     * stage before it (the first stage is compared with the caller).
+     */
+    static final class Request {
+        final long scheduled;
+        String data;
+        private Thread last = Thread.currentThread();
+        private int hops;
+
+        Request(long scheduled, String data) {
+            this.scheduled = scheduled;
+            this.data = data;
+        }
+
+        Request visit() {
+            Thread current = Thread.currentThread();
+            if (current != last) {
+                hops++;
+                last = current;
+            }
+            return this;
+        }
+    }
+
+    static final class Results {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder hops = new LongAdder();
+        final LongAdder completed = new LongAdder();
+
+        void record(Request request) {
+            latency.record(System.nanoTime() - request.scheduled);
+            hops.add(request.hops);
+            completed.increment();
+        }
+
+        double hopsPerRequest() {
+            return (double) hops.sum() / Math.max(1, completed.sum());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Pipeline Benchmark ===\n");
+
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        // Explicit pool sized like the common pool of a 4-core machine, so the comparison doesn't depend on this host
+        ForkJoinPool pool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        Executor virtualThreads = command -> Thread.ofVirtual().start(command);
+        System.out.println("CPU pool: ForkJoinPool(" + pool.getParallelism() + ") for both the chains and the pipelines;");
+        System.out.println("hops = stages that ran on a different thread than the stage before (or the caller)\n");
+
+        Function<Request, CompletableFuture<Request>> chainingChain = request -> CompletableFuture
+                .supplyAsync(() -> initialData(request), pool)
+                .thenApply(PipelineBenchmark::upperCase)
+                .thenApply(PipelineBenchmark::addSuffix)
+                .thenCompose(r -> CompletableFuture.supplyAsync(() -> finalTransformation(r), pool));
+        Pipeline<Request, Request> chainingPipeline = Pipeline.<Request>start()
+                .cpu(PipelineBenchmark::initialData)
+                .inline(PipelineBenchmark::upperCase)
+                .inline(PipelineBenchmark::addSuffix)
+                .cpu(PipelineBenchmark::finalTransformation)
+                .on(pool, virtualThreads);
+
+        Function<Request, CompletableFuture<Request>> compositionChain = composition(pool, pool);
+        Function<Request, CompletableFuture<Request>> compositionOnVirtual = composition(pool, virtualThreads);
+        Pipeline<Request, Request> compositionPipeline = Pipeline.<Request>start()
+                .io(PipelineBenchmark::fetchUserId)
+                .io(PipelineBenchmark::fetchProfile)
+                .io(PipelineBenchmark::fetchPreferences)
+                .inline(PipelineBenchmark::format)
+                .on(pool, virtualThreads);
+
+        System.out.println("1. Fused plans:");
+        System.out.println("   chaining:    " + chainingPipeline);
+        System.out.println("   composition: " + compositionPipeline);
+        Pipeline<Request, Request> mixed = Pipeline.<Request>start()
+                .inline(PipelineBenchmark::upperCase)
+                .io(PipelineBenchmark::fetchProfile)
+                .inline(PipelineBenchmark::addSuffix)
+                .cpu(PipelineBenchmark::render)
+                .cpu(PipelineBenchmark::format)
+                .io(PipelineBenchmark::fetchPreferences);
+        System.out.println("   mixed:       " + mixed + "  (inline, io, inline, cpu, cpu, io)");
+        Pipeline<Request, Request> mixedOnPool = mixed.on(pool, virtualThreads);
+        Request sample = mixedOnPool.run(new Request(System.nanoTime(), "user123")).get();
+        System.out.println("   mixed result: " + sample.data);
+        System.out.println("   hops: " + sample.hops + ", executor handoffs: " + mixedOnPool.handoffs());
+        System.out.println();
+
+        // Warm-up, not reported
+        sequential(requests / 4, chainingChain);
+        sequential(requests / 4, chainingPipeline::run);
+        inFlight(requests / 4, chainingChain);
+        inFlight(requests / 4, chainingPipeline::run);
+
+        System.out.println("2. Chaining (demoChainingOperations), " + requests + " requests of 4 cheap stages:");
+        System.out.printf("   %-34s %10s %14s %14s %14s%n", "strategy", "hops/req", "p50 alone", "p99 alone", "req/s, 1000 up");
+        report("thenApply + thenCompose(async)", requests, chainingChain);
+        report("Pipeline " + chainingPipeline, requests, chainingPipeline::run);
+        System.out.println();
+
+        System.out.println("3. Async composition (demoAsyncComposition), 2 + 3 + 1.5 ms of blocking I/O per request,");
+        System.out.println("   open loop, latency from each request's scheduled arrival:");
+        System.out.printf("   %-34s %8s %10s %10s %10s %12s%n", "strategy", "req/s", "hops/req", "p50", "p99", "completed");
+        openLoop(null, 200, 1, compositionChain);
+        openLoop(null, 200, 1, compositionPipeline::run);
+        openLoop(null, 200, 1, compositionOnVirtual);
+        for (int rate : new int[]{200, 1_000}) {
+            openLoop("thenComposeAsync, blocking in pool", rate, seconds, compositionChain);
+            openLoop("thenComposeAsync, virtual threads", rate, seconds, compositionOnVirtual);
+            openLoop("Pipeline " + compositionPipeline, rate, seconds, compositionPipeline::run);
+            System.out.println();
+        }
+        System.out.println("Blocking inside the pool holds a worker per request for 6.5 ms, so " + pool.getParallelism()
+                + " workers top out near " + (int) (pool.getParallelism() * 1000 / 6.5) + " req/s.");
+        pool.shutdown();
+        System.out.println("Pipeline benchmark completed!");
+    }
+
+    // The composition chain from CompletableFutureDemo, with its blocking calls run on `blocking`
+    static Function<Request, CompletableFuture<Request>> composition(Executor pool, Executor blocking) {
+        return request -> CompletableFuture
+                .supplyAsync(() -> fetchUserId(request), blocking)
+                .thenComposeAsync(r -> CompletableFuture.supplyAsync(() -> fetchProfile(r), blocking), pool)
+                .thenComposeAsync(r -> CompletableFuture.supplyAsync(() -> fetchPreferences(r), blocking), pool)
+                .thenApplyAsync(PipelineBenchmark::format, pool);
+    }
+
+    static Request initialData(Request r) {
+        r.visit().data = "Initial Data " + r.data;
+        return r;
+    }
+
+    static Request upperCase(Request r) {
+        r.visit().data = r.data.toUpperCase();
+        return r;
+    }
+
+    static Request addSuffix(Request r) {
+        r.visit().data = r.data + " - PROCESSED";
+        return r;
+    }
+
+    static Request finalTransformation(Request r) {
+        r.visit().data = "Final: " + r.data;
+        return r;
+    }
+
+    static Request fetchUserId(Request r) {
+        r.visit();
+        LockSupport.parkNanos(2_000_000);
+        r.data = "user123";
+        return r;
+    }
+
+    static Request fetchProfile(Request r) {
+        r.visit();
+        LockSupport.parkNanos(3_000_000);
+        r.data = "Profile data for " + r.data;
+        return r;
+    }
+
+    static Request fetchPreferences(Request r) {
+        r.visit();
+        LockSupport.parkNanos(1_500_000);
+        r.data = r.data + " with preferences loaded";
+        return r;
+    }
+
+    static Request format(Request r) {
+        r.visit().data = "Final Response: " + r.data;
+        return r;
+    }
+
+    static Request render(Request r) {
+        r.visit().data = "<p>" + r.data + "</p>";
+        return r;
+    }
+
+    static void report(String name, int requests, Function<Request, CompletableFuture<Request>> client)
+            throws InterruptedException {
+        Results alone = sequential(requests, client);
+        double perSecond = inFlight(requests, client);
+        System.out.printf("   %-34s %10.2f %11.1f μs %11.1f μs %14.0f%n", name, alone.hopsPerRequest(),
+                alone.latency.percentile(50) / 1e3, alone.latency.percentile(99) / 1e3, perSecond);
+    }
+
+    // One request at a time: the latency of the handoffs themselves
+    static Results sequential(int requests, Function<Request, CompletableFuture<Request>> client) {
+        Results results = new Results();
+        for (int i = 0; i < requests; i++) {
+            results.record(client.apply(new Request(System.nanoTime(), "request-" + i)).join());
+        }
+        return results;
+    }
+
+    // Up to 1000 requests outstanding: throughput
+    static double inFlight(int requests, Function<Request, CompletableFuture<Request>> client)
+            throws InterruptedException {
+        Semaphore window = new Semaphore(1000);
+        CountDownLatch done = new CountDownLatch(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            window.acquire();
+            client.apply(new Request(System.nanoTime(), "request-" + i)).whenComplete((r, error) -> {
+                window.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        return requests / ((System.nanoTime() - start) / 1e9);
+    }
+
+    static void openLoop(String name, int rate, int seconds, Function<Request, CompletableFuture<Request>> client)
+            throws InterruptedException {
+        Results results = new Results();
+        int requests = rate * seconds;
+        CountDownLatch done = new CountDownLatch(requests);
+        long interval = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long scheduled = start + i * interval;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 50_000) {
+                LockSupport.parkNanos(wait);
+            }
+            client.apply(new Request(scheduled, "request-" + i)).whenComplete((r, error) -> {
+                results.record(r);
+                done.countDown();
+            });
+        }
+        // Bounded drain; an overloaded strategy may not make it
+        boolean finished = done.await(10, TimeUnit.SECONDS);
+        long completed = requests - done.getCount();
+        if (name != null) {
+            System.out.printf("   %-34s %8d %10.2f %7.1f ms %7.1f ms %12s%n", name, rate, results.hopsPerRequest(),
+                    results.latency.percentile(50) / 1e6, results.latency.percentile(99) / 1e6,
+                    finished ? "all" : completed + "/" + requests);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Thread pool whose work queue orders tasks by priority class with aging.
+ * A task's rank is its enqueue time plus a fixed offset per class, so a HIGH
+ * task jumps ahead of LOW tasks queued up to two aging periods before it, but
+ * a LOW task that has waited longer than that outranks anything new and
+ * cannot starve. Aging 0 degenerates to FIFO. Each class has its own queue
+ * capacity and queue-wait histogram; a task holds its class's capacity until
+ * it starts running or leaves the queue through remove, purge or shutdownNow.
+ */
+public class PriorityExecutor extends ThreadPoolExecutor {
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final long agingNanos;
+    private final int capacityPerClass;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger[] queued = new AtomicInteger[PRIORITIES.length];
+    private final AtomicLong[] rejected = new AtomicLong[PRIORITIES.length];
+    private final LatencyHistogram[] queueWait = new LatencyHistogram[PRIORITIES.length];
+
+    public PriorityExecutor(int threads, long aging, TimeUnit unit, int capacityPerClass) {
+        this(threads, aging, unit, capacityPerClass, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "PriorityWorker-" + threadCount.incrementAndGet());
+            }
+        });
+    }
+
+    public PriorityExecutor(int threads, long aging, TimeUnit unit, int capacityPerClass,
+                            ThreadFactory threadFactory) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(64, PriorityExecutor::compareRank), threadFactory);
+        this.agingNanos = unit.toNanos(aging);
+        this.capacityPerClass = capacityPerClass;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queued[i] = new AtomicInteger();
+            rejected[i] = new AtomicLong();
+            queueWait[i] = new LatencyHistogram();
+        }
+    }
+
+    private static int compareRank(Runnable a, Runnable b) {
+        PrioritizedTask<?> left = (PrioritizedTask<?>) a;
+        PrioritizedTask<?> right = (PrioritizedTask<?>) b;
+        // Ranks derive from nanoTime and may wrap, so compare their difference, as nanoTime requires
+        int byRank = Long.signum(left.rank - right.rank);
+        return byRank != 0 ? byRank : Long.compare(left.sequence, right.sequence);
+    }
+
+    public void execute(Priority priority, Runnable command) {
+        execute(new PrioritizedTask<Void>(command, null, priority));
+    }
+
+    public <T> Future<T> submit(Priority priority, Callable<T> task) {
+        PrioritizedTask<T> future = new PrioritizedTask<>(task, priority);
+        execute(future);
+        return future;
+    }
+
+    public Future<?> submit(Priority priority, Runnable task) {
+        PrioritizedTask<Void> future = new PrioritizedTask<>(task, null, priority);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        PrioritizedTask<?> task = command instanceof PrioritizedTask
+                ? (PrioritizedTask<?>) command
+                : new PrioritizedTask<Void>(command, null, Priority.NORMAL);
+        int index = task.priority.ordinal();
+        if (queued[index].incrementAndGet() > capacityPerClass) {
+            queued[index].decrementAndGet();
+            rejected[index].incrementAndGet();
+            throw new RejectedExecutionException(task.priority + " queue is full (" + capacityPerClass + " tasks)");
+        }
+        task.enqueuedNanos = System.nanoTime();
+        // Capped so rank differences stay far from overflow; long enough aging values simply mean strict priority
+        task.rank = task.enqueuedNanos + Math.min(agingNanos, Long.MAX_VALUE / 8) * index;
+        task.sequence = sequence.getAndIncrement();
+        try {
+            super.execute(task);
+        } catch (RejectedExecutionException e) {
+            release(task);
+            rejected[index].incrementAndGet();
+            throw e;
+        }
+    }
+
+    // Every way out of the queue returns the task's unit of class capacity, at most once
+    private void release(Runnable r) {
+        if (r instanceof PrioritizedTask && ((PrioritizedTask<?>) r).released.compareAndSet(false, true)) {
+            queued[((PrioritizedTask<?>) r).priority.ordinal()].decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean remove(Runnable task) {
+        boolean removed = super.remove(task);
+        if (removed) {
+            release(task);
+        }
+        return removed;
+    }
+
+    @Override
+    public void purge() {
+        // Whatever purge() drops is among the tasks cancelled now; any a worker takes first is released there
+        List<Runnable> cancelled = new ArrayList<>();
+        for (Runnable r : getQueue()) {
+            if (r instanceof Future && ((Future<?>) r).isCancelled()) {
+                cancelled.add(r);
+            }
+        }
+        super.purge();
+        for (Runnable r : cancelled) {
+            if (!getQueue().contains(r)) {
+                release(r);
+            }
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> drained = super.shutdownNow();
+        for (Runnable r : drained) {
+            release(r);
+        }
+        return drained;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PrioritizedTask<>(callable, Priority.NORMAL);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedTask<>(runnable, value, Priority.NORMAL);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        PrioritizedTask<?> task = (PrioritizedTask<?>) r;
+        int index = task.priority.ordinal();
+        release(task);
+        queueWait[index].record(System.nanoTime() - task.enqueuedNanos);
+    }
+
+    public LatencyHistogram queueWait(Priority priority) {
+        return queueWait[priority.ordinal()];
+    }
+
+    public int queued(Priority priority) {
+        return queued[priority.ordinal()].get();
+    }
+
+    public long rejected(Priority priority) {
+        return rejected[priority.ordinal()].get();
+    }
+
+    static final class PrioritizedTask<V> extends FutureTask<V> {
+        final Priority priority;
+        long enqueuedNanos;
+        long rank;
+        long sequence;
+        final AtomicBoolean released = new AtomicBoolean();
+
+        PrioritizedTask(Callable<V> callable, Priority priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        PrioritizedTask(Runnable runnable, V result, Priority priority) {
+            super(runnable, result);
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package executors;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class PriorityExecutorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Priority Executor Mixed-Workload Benchmark ===\n");
+
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int workers = 4;
+        long serviceMicros = 1000;
+        // 4 workers x 1 ms serve about 4000 tasks/s; steady interactive traffic uses half of that
+        int highRate = 400;
+        int normalRate = 1600;
+        // A batch job dumps this many LOW tasks at the start of every second
+        int lowBurst = 1500;
+
+        System.out.println(workers + " workers, " + serviceMicros + " μs per task for " + seconds + " s: HIGH "
+                + highRate + "/s, NORMAL " + normalRate + "/s, LOW bursts of " + lowBurst + " every second\n");
+
+        run("FIFO (aging 0)", 0, workers, serviceMicros, highRate, normalRate, lowBurst, seconds);
+        run("priority + aging 50 ms", 50, workers, serviceMicros, highRate, normalRate, lowBurst, seconds);
+        run("strict priority", Long.MAX_VALUE, workers, serviceMicros, highRate, normalRate, lowBurst, seconds);
+
+        System.out.println("Priority executor benchmark completed!");
+    }
+
+    static void run(String name, long agingMillis, int workers, long serviceMicros,
+                    int highRate, int normalRate, int lowBurst, int seconds) throws InterruptedException {
+        PriorityExecutor executor = new PriorityExecutor(workers, agingMillis, TimeUnit.MILLISECONDS, 2_000);
+        executor.prestartAllCoreThreads();
+        long serviceNanos = TimeUnit.MICROSECONDS.toNanos(serviceMicros);
+        Runnable work = () -> LockSupport.parkNanos(serviceNanos);
+
+        // Open-loop generator: every millisecond submit whatever each class is owed by now
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long[] submitted = new long[3];
+        PriorityExecutor.Priority[] classes = PriorityExecutor.Priority.values();
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            long elapsed = now - start;
+            long[] owed = {
+                    elapsed * highRate / 1_000_000_000L,
+                    elapsed * normalRate / 1_000_000_000L,
+                    (elapsed / 1_000_000_000L + 1) * lowBurst
+            };
+            for (int c = 0; c < classes.length; c++) {
+                long due = owed[c];
+                while (submitted[c] < due) {
+                    submitted[c]++;
+                    try {
+                        executor.execute(classes[c], work);
+                    } catch (RejectedExecutionException e) {
+                        // counted by the executor
+                    }
+                }
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        executor.shutdown();
+        executor.awaitTermination(60, TimeUnit.SECONDS);
+
+        System.out.println(name + ":");
+        System.out.printf("  %-8s %10s %10s %12s %12s %12s%n", "class", "run", "rejected", "p50 wait", "p99 wait", "max wait");
+        for (PriorityExecutor.Priority priority : classes) {
+            LatencyHistogram wait = executor.queueWait(priority);
+            System.out.printf("  %-8s %10d %10d %9.2f ms %9.2f ms %9.2f ms%n",
+                    priority, wait.count(), executor.rejected(priority),
+                    wait.percentile(50) / 1e6, wait.percentile(99) / 1e6, wait.max() / 1e6);
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,172 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TimingWheelBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Timing Wheel vs ScheduledThreadPoolExecutor ===\n");
+
+        int timers = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double cancelFraction = args.length > 1 ? Double.parseDouble(args[1]) : 0.9;
+
+        System.out.println("1. Firing accuracy (10000 timers, 10-500 ms delays):");
+        System.out.printf("   %-30s %12s %12s %12s%n", "scheduler", "p50 late", "p99 late", "max late");
+        // Untimed warm-up of both implementations so neither pays for JIT compilation in the table
+        warmUp(newHeapScheduler(true));
+        warmUp(new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, 2));
+        accuracy("ScheduledThreadPoolExecutor", newHeapScheduler(true));
+        accuracy("TimingWheelScheduler (1 ms)", new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, 2));
+        System.out.println();
+
+        System.out.println("2. " + timers + " pending timers (10-60 s), then cancel " + (int) (cancelFraction * 100)
+                + "% (best of 3 rounds; times include allocating the timers):");
+        System.out.printf("   %-30s %14s %14s %14s %16s%n", "scheduler", "schedule", "cancel", "heap/timer", "heap after cancel");
+        String[] names = {"STPE removeOnCancel=false", "STPE removeOnCancel=true", "TimingWheelScheduler (1 ms)"};
+        long[][] best = new long[names.length][4];
+        for (long[] row : best) {
+            Arrays.fill(row, Long.MAX_VALUE);
+        }
+        // Rounds are interleaved so JIT and heap state favour no implementation
+        for (int round = 0; round < 3; round++) {
+            for (int n = 0; n < names.length; n++) {
+                ScheduledExecutorService scheduler = n < 2
+                        ? newHeapScheduler(n == 1)
+                        : new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, 2);
+                long[] result = churn(scheduler, timers, cancelFraction);
+                for (int i = 0; i < result.length; i++) {
+                    best[n][i] = Math.min(best[n][i], result[i]);
+                }
+            }
+        }
+        for (int n = 0; n < names.length; n++) {
+            System.out.printf("   %-30s %8.0f ns/op %8.0f ns/op %10.0f B %13.1f MB%n", names[n],
+                    (double) best[n][0] / timers, (double) best[n][1] / Math.max(1, (long) (timers * cancelFraction)),
+                    (double) best[n][2] / timers, best[n][3] / 1e6);
+        }
+        System.out.println();
+
+        System.out.println("3. Periodic task on the wheel (every 100 ms, 5 runs):");
+        TimingWheelScheduler wheel = new TimingWheelScheduler(1, TimeUnit.MILLISECONDS, 2);
+        CountDownLatch runs = new CountDownLatch(5);
+        long start = System.nanoTime();
+        ScheduledFuture<?> periodic = wheel.scheduleAtFixedRate(() -> {
+            System.out.printf("   run at %6.1f ms on %s%n", (System.nanoTime() - start) / 1e6,
+                    Thread.currentThread().getName());
+            runs.countDown();
+        }, 100, 100, TimeUnit.MILLISECONDS);
+        runs.await();
+        periodic.cancel(false);
+        wheel.shutdown();
+        wheel.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.println();
+
+        System.out.println("Timing wheel benchmark completed!");
+    }
+
+    static ScheduledThreadPoolExecutor newHeapScheduler(boolean removeOnCancel) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2);
+        executor.setRemoveOnCancelPolicy(removeOnCancel);
+        return executor;
+    }
+
+    static void warmUp(ScheduledExecutorService scheduler) throws InterruptedException {
+        List<ScheduledFuture<?>> futures = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                futures.add(scheduler.schedule(() -> { }, 1 + i % 5_000, TimeUnit.MILLISECONDS));
+            }
+            for (ScheduledFuture<?> future : futures) {
+                future.cancel(false);
+            }
+            futures.clear();
+        }
+        CountDownLatch fired = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            scheduler.schedule(fired::countDown, i % 20, TimeUnit.MILLISECONDS);
+        }
+        fired.await();
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    static void accuracy(String name, ScheduledExecutorService scheduler) throws InterruptedException {
+        int count = 10_000;
+        LatencyHistogram lateness = new LatencyHistogram();
+        CountDownLatch done = new CountDownLatch(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(10 + random.nextInt(490));
+            long due = System.nanoTime() + delayNanos;
+            scheduler.schedule(() -> {
+                lateness.record(System.nanoTime() - due);
+                done.countDown();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+        done.await();
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        System.out.printf("   %-30s %9.2f ms %9.2f ms %9.2f ms%n", name,
+                lateness.percentile(50) / 1e6, lateness.percentile(99) / 1e6, lateness.max() / 1e6);
+    }
+
+    // Returns schedule nanos, cancel nanos, heap bytes while pending, heap bytes left after cancelling
+    static long[] churn(ScheduledExecutorService scheduler, int timers, double cancelFraction)
+            throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger();
+        Runnable task = fired::incrementAndGet;
+        Random random = new Random(7);
+        long[] delays = new long[timers];
+        for (int i = 0; i < timers; i++) {
+            delays[i] = 10_000 + random.nextInt(50_000);
+        }
+        List<ScheduledFuture<?>> futures = new ArrayList<>(timers);
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < timers; i++) {
+            futures.add(scheduler.schedule(task, delays[i], TimeUnit.MILLISECONDS));
+        }
+        long scheduleNanos = System.nanoTime() - start;
+        long heapScheduled = usedHeap();
+
+        // Cancel in random order, as timeouts for requests that completed would be
+        int toCancel = (int) (timers * cancelFraction);
+        for (int i = futures.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            ScheduledFuture<?> swap = futures.get(i);
+            futures.set(i, futures.get(j));
+            futures.set(j, swap);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < toCancel; i++) {
+            futures.get(i).cancel(false);
+        }
+        long cancelNanos = System.nanoTime() - start;
+        futures.subList(0, toCancel).clear();
+        long heapCancelled = usedHeap();
+
+        futures.clear();
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        return new long[]{scheduleNanos, cancelNanos, heapScheduled - heapBefore, heapCancelled - heapBefore};
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
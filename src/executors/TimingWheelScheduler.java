@@ -0,0 +1,423 @@
+package executors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * ScheduledExecutorService backed by a hierarchical timing wheel instead of a
+ * heap. Six levels of 64 slots cover 64^6 ticks; a timer goes into the lowest
+ * level whose span reaches its deadline, and when a higher-level slot comes due
+ * its timers cascade down. Each slot is an intrusive doubly-linked list, so
+ * schedule and cancel are O(1) no matter how many timers are pending, and a
+ * cancelled timer is unlinked immediately instead of lingering until its
+ * deadline. A single ticker thread advances the wheel and hands each tick's
+ * expired timers to the worker pool in batches.
+ */
+public final class TimingWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 6;
+    private static final int MAX_BATCH = 256;
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final int workers;
+    private final ExecutorService dispatcher;
+    private final Thread ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WheelTimer<?>[] heads = new WheelTimer<?>[LEVELS * SLOTS];
+    private long currentTick;
+    private int pending;
+    private volatile boolean idle;
+    private volatile int runState = RUNNING;
+
+    public TimingWheelScheduler(long tick, TimeUnit unit, int workers) {
+        if (tick <= 0 || workers < 1) {
+            throw new IllegalArgumentException("tick and workers must be positive");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.workers = workers;
+        this.dispatcher = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "WheelWorker-" + threadCount.incrementAndGet());
+            }
+        });
+        this.ticker = new Thread(this::tickLoop, "WheelTicker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(new WheelTimer<Void>(command, null, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return schedule(new WheelTimer<>(callable, triggerTime(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        return schedule(new WheelTimer<Void>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay must be positive");
+        }
+        return schedule(new WheelTimer<Void>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    private long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + Math.max(0, unit.toNanos(delay));
+    }
+
+    private <V> WheelTimer<V> schedule(WheelTimer<V> timer) {
+        if (!enqueue(timer)) {
+            throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        return timer;
+    }
+
+    private boolean enqueue(WheelTimer<?> timer) {
+        boolean wake;
+        lock.lock();
+        try {
+            if (runState != RUNNING || timer.isCancelled()) {
+                return false;
+            }
+            if (pending == 0) {
+                // The ticker stops advancing while the wheel is empty; catch up instead of replaying idle ticks
+                currentTick = Math.max(currentTick, (System.nanoTime() - startNanos) / tickNanos);
+            }
+            insert(timer);
+            pending++;
+            wake = idle;
+        } finally {
+            lock.unlock();
+        }
+        if (wake) {
+            LockSupport.unpark(ticker);
+        }
+        return true;
+    }
+
+    // Caller holds the lock; deadlines already behind the wheel fire on the next tick
+    private void insert(WheelTimer<?> timer) {
+        long deadlineTick = Math.max(currentTick + 1, Math.ceilDiv(timer.deadlineNanos - startNanos, tickNanos));
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Beyond the top level's span the timer parks in the farthest slot and is re-placed when it cascades
+        long placement = Math.min(deadlineTick, currentTick + (1L << (SLOT_BITS * LEVELS)) - 1);
+        int index = level * SLOTS + (int) ((placement >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        timer.deadlineTick = deadlineTick;
+        timer.bucket = index;
+        timer.prev = null;
+        timer.next = heads[index];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        heads[index] = timer;
+    }
+
+    private void unlink(WheelTimer<?> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            heads[timer.bucket] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = -1;
+    }
+
+    private void remove(WheelTimer<?> timer) {
+        lock.lock();
+        try {
+            if (timer.bucket >= 0) {
+                unlink(timer);
+                pending--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void tickLoop() {
+        List<WheelTimer<?>> due = new ArrayList<>();
+        while (true) {
+            long parkNanos;
+            lock.lock();
+            try {
+                if (runState == STOP || (runState == SHUTDOWN && pending == 0)) {
+                    break;
+                }
+                long target = (System.nanoTime() - startNanos) / tickNanos;
+                if (pending == 0) {
+                    currentTick = Math.max(currentTick, target);
+                }
+                while (currentTick < target) {
+                    currentTick++;
+                    advance(due);
+                }
+                idle = pending == 0;
+                parkNanos = idle ? 0 : startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+            } finally {
+                lock.unlock();
+            }
+            if (!due.isEmpty()) {
+                dispatch(due);
+                due.clear();
+            }
+            if (idle) {
+                LockSupport.park(this);
+            } else if (parkNanos > 0) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+        }
+        if (runState == SHUTDOWN) {
+            dispatcher.shutdown();
+        }
+    }
+
+    // Caller holds the lock: cascade every level whose slot boundary was just crossed, highest first, then expire
+    private void advance(List<WheelTimer<?>> due) {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                continue;
+            }
+            int index = level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+            WheelTimer<?> timer = heads[index];
+            heads[index] = null;
+            while (timer != null) {
+                WheelTimer<?> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.bucket = -1;
+                if (timer.deadlineTick <= currentTick) {
+                    due.add(timer);
+                    pending--;
+                } else {
+                    insert(timer);
+                }
+                timer = next;
+            }
+        }
+        int index = (int) (currentTick & (SLOTS - 1));
+        WheelTimer<?> timer = heads[index];
+        heads[index] = null;
+        while (timer != null) {
+            WheelTimer<?> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = -1;
+            due.add(timer);
+            pending--;
+            timer = next;
+        }
+    }
+
+    // One pool task per batch instead of per timer, split so every worker gets a share
+    private void dispatch(List<WheelTimer<?>> due) {
+        int batch = Math.max(1, Math.min(MAX_BATCH, (due.size() + workers - 1) / workers));
+        for (int from = 0; from < due.size(); from += batch) {
+            WheelTimer<?>[] timers = due.subList(from, Math.min(due.size(), from + batch)).toArray(new WheelTimer<?>[0]);
+            try {
+                dispatcher.execute(() -> {
+                    for (WheelTimer<?> timer : timers) {
+                        timer.run();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                for (WheelTimer<?> timer : timers) {
+                    timer.cancel(false);
+                }
+            }
+        }
+    }
+
+    public int pendingTimers() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Like ScheduledThreadPoolExecutor's defaults: delayed tasks still run, periodic ones are cancelled
+    @Override
+    public void shutdown() {
+        List<WheelTimer<?>> periodic = new ArrayList<>();
+        lock.lock();
+        try {
+            if (runState != RUNNING) {
+                return;
+            }
+            runState = SHUTDOWN;
+            for (WheelTimer<?> head : heads) {
+                for (WheelTimer<?> timer = head; timer != null; timer = timer.next) {
+                    if (timer.isPeriodic()) {
+                        periodic.add(timer);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (WheelTimer<?> timer : periodic) {
+            timer.cancel(false);
+        }
+        LockSupport.unpark(ticker);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> unstarted = new ArrayList<>();
+        lock.lock();
+        try {
+            runState = STOP;
+            for (int i = 0; i < heads.length; i++) {
+                WheelTimer<?> timer = heads[i];
+                heads[i] = null;
+                while (timer != null) {
+                    WheelTimer<?> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    timer.bucket = -1;
+                    unstarted.add(timer);
+                    timer = next;
+                }
+            }
+            pending = 0;
+        } finally {
+            lock.unlock();
+        }
+        LockSupport.unpark(ticker);
+        unstarted.addAll(dispatcher.shutdownNow());
+        return unstarted;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return runState != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return !ticker.isAlive() && dispatcher.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long remaining = unit.toNanos(timeout);
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.timedJoin(ticker, remaining);
+        }
+        if (ticker.isAlive()) {
+            return false;
+        }
+        return dispatcher.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    // periodNanos: 0 one-shot, > 0 fixed rate, < 0 fixed delay
+    final class WheelTimer<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        long deadlineNanos;
+        final long periodNanos;
+        long deadlineTick;
+        int bucket = -1;
+        WheelTimer<?> prev;
+        WheelTimer<?> next;
+
+        WheelTimer(Callable<V> callable, long deadlineNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = 0;
+        }
+
+        WheelTimer(Runnable runnable, V result, long deadlineNanos, long periodNanos) {
+            super(runnable, result);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                remove(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset()) {
+                deadlineNanos = periodNanos > 0 ? deadlineNanos + periodNanos : System.nanoTime() - periodNanos;
+                if (!enqueue(this)) {
+                    cancel(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package synchronization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class DiningPhilosophersBenchmark {
+
+    enum Strategy {
+        RESOURCE_HIERARCHY,
+        WAITER,
+        CHANDY_MISRA,
+        TRY_LOCK_BACKOFF
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Dining Philosophers Benchmark ===\n");
+
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : new int[]{5, 100, 1_000, 10_000};
+        long thinkMicros = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        long eatMicros = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 2;
+
+        System.out.println("Think time: " + thinkMicros + " μs, eat time: " + eatMicros
+                + " μs, run time: " + seconds + " s per strategy (virtual threads)\n");
+
+        for (int philosophers : sizes) {
+            System.out.println(philosophers + " philosophers:");
+            System.out.printf("  %-20s %12s %10s %10s %10s %8s %12s%n",
+                    "strategy", "meals/s", "min meals", "max meals", "mean", "jain", "max wait ms");
+            for (Strategy strategy : Strategy.values()) {
+                Result result = run(strategy, philosophers,
+                        TimeUnit.MICROSECONDS.toNanos(thinkMicros),
+                        TimeUnit.MICROSECONDS.toNanos(eatMicros),
+                        TimeUnit.SECONDS.toNanos(seconds));
+                result.print();
+            }
+            System.out.println();
+        }
+
+        System.out.println("Jain fairness index: 1.0 means every philosopher ate equally often.");
+        System.out.println("Dining philosophers benchmark completed!");
+    }
+
+    static Result run(Strategy strategy, int philosophers, long thinkNanos, long eatNanos, long durationNanos)
+            throws InterruptedException {
+        if (philosophers < 2) {
+            throw new IllegalArgumentException("Need at least 2 philosophers, got " + philosophers);
+        }
+        Table table = newTable(strategy, philosophers);
+        long[] meals = new long[philosophers];
+        long[] maxWaits = new long[philosophers];
+        Stop stop = new Stop();
+
+        List<Thread> threads = new ArrayList<>(philosophers);
+        for (int i = 0; i < philosophers; i++) {
+            final int id = i;
+            threads.add(Thread.ofVirtual().name("Philosopher-" + id).unstarted(() -> {
+                long eaten = 0;
+                long maxWait = 0;
+                while (!stop.stopped) {
+                    pause(thinkNanos);
+                    long hungrySince = System.nanoTime();
+                    table.pickUp(id);
+                    long waited = System.nanoTime() - hungrySince;
+                    if (waited > maxWait) {
+                        maxWait = waited;
+                    }
+                    pause(eatNanos);
+                    table.putDown(id);
+                    eaten++;
+                }
+                meals[id] = eaten;
+                maxWaits[id] = maxWait;
+            }));
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        stop.stopped = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(strategy, meals, maxWaits, elapsed);
+    }
+
+    static Table newTable(Strategy strategy, int philosophers) {
+        switch (strategy) {
+            case RESOURCE_HIERARCHY:
+                return new HierarchyTable(philosophers);
+            case WAITER:
+                return new WaiterTable(philosophers);
+            case CHANDY_MISRA:
+                return new ChandyMisraTable(philosophers);
+            case TRY_LOCK_BACKOFF:
+                return new BackoffTable(philosophers);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    static int[] parseSizes(String arg) {
+        String[] parts = arg.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+
+    static final class Stop {
+        volatile boolean stopped;
+    }
+
+    interface Table {
+        void pickUp(int philosopher);
+
+        void putDown(int philosopher);
+    }
+
+    // Philosopher i sits between fork i (left) and fork i + 1 (right)
+    abstract static class ForkTable implements Table {
+        final ReentrantLock[] forks;
+
+        ForkTable(int philosophers) {
+            forks = new ReentrantLock[philosophers];
+            for (int i = 0; i < philosophers; i++) {
+                forks[i] = new ReentrantLock();
+            }
+        }
+
+        int left(int philosopher) {
+            return philosopher;
+        }
+
+        int right(int philosopher) {
+            return (philosopher + 1) % forks.length;
+        }
+
+        @Override
+        public void putDown(int philosopher) {
+            forks[right(philosopher)].unlock();
+            forks[left(philosopher)].unlock();
+        }
+    }
+
+    static final class HierarchyTable extends ForkTable {
+        HierarchyTable(int philosophers) {
+            super(philosophers);
+        }
+
+        @Override
+        public void pickUp(int philosopher) {
+            int first = Math.min(left(philosopher), right(philosopher));
+            int second = Math.max(left(philosopher), right(philosopher));
+            forks[first].lock();
+            forks[second].lock();
+        }
+    }
+
+    static final class WaiterTable extends ForkTable {
+        private final Semaphore waiter;
+
+        WaiterTable(int philosophers) {
+            super(philosophers);
+            waiter = new Semaphore(Math.max(1, philosophers - 1));
+        }
+
+        @Override
+        public void pickUp(int philosopher) {
+            waiter.acquireUninterruptibly();
+            forks[left(philosopher)].lock();
+            forks[right(philosopher)].lock();
+        }
+
+        @Override
+        public void putDown(int philosopher) {
+            super.putDown(philosopher);
+            waiter.release();
+        }
+    }
+
+    static final class BackoffTable extends ForkTable {
+        private static final long MIN_BACKOFF_NANOS = 1_000;
+        private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+        BackoffTable(int philosophers) {
+            super(philosophers);
+        }
+
+        @Override
+        public void pickUp(int philosopher) {
+            ReentrantLock first = forks[left(philosopher)];
+            ReentrantLock second = forks[right(philosopher)];
+            long backoff = MIN_BACKOFF_NANOS;
+            while (true) {
+                first.lock();
+                if (second.tryLock()) {
+                    return;
+                }
+                first.unlock();
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoff) + 1);
+                backoff = Math.min(MAX_BACKOFF_NANOS, backoff * 2);
+            }
+        }
+    }
+
+    /*
+     * Shared-memory form of Chandy-Misra: every fork has an owner and is either
+     * clean or dirty. A hungry philosopher takes a neighbour's fork only when it
+     * is dirty and not being eaten with, so clean forks (just handed over) stay
+     * put until their new owner has eaten. Initially all forks are dirty and held
+     * by the lower-numbered neighbour, which keeps the precedence graph acyclic.
+     */
+    static final class ChandyMisraTable implements Table {
+        private final Fork[] forks;
+
+        ChandyMisraTable(int philosophers) {
+            forks = new Fork[philosophers];
+            for (int i = 0; i < philosophers; i++) {
+                // fork i is shared by philosopher i - 1 and philosopher i
+                int previous = (i + philosophers - 1) % philosophers;
+                forks[i] = new Fork(i, Math.min(previous, i));
+            }
+        }
+
+        @Override
+        public void pickUp(int philosopher) {
+            Fork left = forks[philosopher];
+            Fork right = forks[(philosopher + 1) % forks.length];
+            Fork lower = left.index < right.index ? left : right;
+            Fork higher = lower == left ? right : left;
+            while (true) {
+                left.acquire(philosopher);
+                right.acquire(philosopher);
+
+                lower.lock.lock();
+                try {
+                    higher.lock.lock();
+                    try {
+                        if (left.owner == philosopher && right.owner == philosopher) {
+                            left.inUse = true;
+                            right.inUse = true;
+                            left.dirty = false;
+                            right.dirty = false;
+                            return;
+                        }
+                    } finally {
+                        higher.lock.unlock();
+                    }
+                } finally {
+                    lower.lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public void putDown(int philosopher) {
+            forks[philosopher].release();
+            forks[(philosopher + 1) % forks.length].release();
+        }
+
+        static final class Fork {
+            final int index;
+            final ReentrantLock lock = new ReentrantLock();
+            final Condition available = lock.newCondition();
+            int owner;
+            boolean dirty = true;
+            boolean inUse;
+
+            Fork(int index, int owner) {
+                this.index = index;
+                this.owner = owner;
+            }
+
+            void acquire(int philosopher) {
+                lock.lock();
+                try {
+                    while (owner != philosopher) {
+                        if (dirty && !inUse) {
+                            owner = philosopher;
+                            dirty = false;
+                        } else {
+                            available.awaitUninterruptibly();
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            void release() {
+                lock.lock();
+                try {
+                    inUse = false;
+                    dirty = true;
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    static final class Result {
+        final Strategy strategy;
+        final long[] meals;
+        final long[] maxWaits;
+        final long elapsedNanos;
+
+        Result(Strategy strategy, long[] meals, long[] maxWaits, long elapsedNanos) {
+            this.strategy = strategy;
+            this.meals = meals;
+            this.maxWaits = maxWaits;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        void print() {
+            long total = 0;
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            double sumSquares = 0;
+            long maxWait = 0;
+            for (int i = 0; i < meals.length; i++) {
+                total += meals[i];
+                min = Math.min(min, meals[i]);
+                max = Math.max(max, meals[i]);
+                sumSquares += (double) meals[i] * meals[i];
+                maxWait = Math.max(maxWait, maxWaits[i]);
+            }
+            double mean = (double) total / meals.length;
+            double jain = sumSquares == 0 ? 0 : ((double) total * total) / (meals.length * sumSquares);
+            double mealsPerSecond = total / (elapsedNanos / 1e9);
+
+            System.out.printf("  %-20s %12.0f %10d %10d %10.1f %8.3f %12.2f%n",
+                    strategy, mealsPerSecond, min, max, mean, jain, maxWait / 1e6);
+        }
+    }
+}
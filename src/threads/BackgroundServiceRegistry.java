@@ -0,0 +1,271 @@
+package threads;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Runs flushers, compactors and similar background work on named non-daemon
+ * threads instead of raw daemon threads. On shutdown every service is told to
+ * stop at the same time, gets its own deadline to drain in-flight work, and is
+ * interrupted only once that deadline has passed, so the whole drain takes as
+ * long as the slowest service rather than the sum of all of them.
+ */
+public class BackgroundServiceRegistry {
+
+    public enum State {
+        NEW,
+        RUNNING,
+        DRAINING,
+        STOPPED,
+        FAILED
+    }
+
+    // Long-running worker; should return soon after context.isStopping() turns true
+    public interface Worker {
+        void run(ServiceContext context) throws Exception;
+    }
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final List<Service> services = new ArrayList<>();
+    private volatile boolean stopping;
+    private boolean started;
+    private Thread shutdownHook;
+
+    public synchronized ServiceContext registerPeriodic(String name, long period, TimeUnit unit,
+                                                        Runnable tick, Runnable drain,
+                                                        long drainDeadline, TimeUnit deadlineUnit) {
+        long periodNanos = unit.toNanos(period);
+        Service service = new Service(name, deadlineUnit.toNanos(drainDeadline));
+        service.body = context -> {
+            long next = System.nanoTime() + periodNanos;
+            try {
+                while (!stopping) {
+                    long now = System.nanoTime();
+                    if (now - next < 0) {
+                        LockSupport.parkNanos(next - now);
+                        continue;
+                    }
+                    service.lagNanos = now - next;
+                    try {
+                        tick.run();
+                    } catch (RuntimeException e) {
+                        // One bad tick is reported in status() but doesn't stop the schedule
+                        service.failure = e;
+                    }
+                    service.heartbeat();
+                    next += periodNanos;
+                    long end = System.nanoTime();
+                    if (end - next > 0) {
+                        // Overran: skip the missed periods rather than fire them back to back
+                        next = end;
+                    }
+                }
+            } finally {
+                // Buffered work is flushed even if an Error ended the loop early
+                service.state = State.DRAINING;
+                drain.run();
+            }
+        };
+        return register(service);
+    }
+
+    public synchronized ServiceContext registerLongRunning(String name, Worker worker,
+                                                           long drainDeadline, TimeUnit deadlineUnit) {
+        Service service = new Service(name, deadlineUnit.toNanos(drainDeadline));
+        service.body = worker;
+        return register(service);
+    }
+
+    private ServiceContext register(Service service) {
+        if (stopping) {
+            throw new IllegalStateException("Registry is shutting down");
+        }
+        services.add(service);
+        if (started) {
+            service.start();
+        }
+        return service;
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        for (Service service : services) {
+            service.start();
+        }
+    }
+
+    public synchronized void installShutdownHook() {
+        if (shutdownHook != null) {
+            return;
+        }
+        shutdownHook = new Thread(this::shutdown, "BackgroundServiceRegistry-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // Returns true if every service drained within its deadline
+    public boolean shutdown() {
+        List<Service> snapshot;
+        synchronized (this) {
+            if (stopping) {
+                snapshot = new ArrayList<>(services);
+            } else {
+                stopping = true;
+                snapshot = new ArrayList<>(services);
+                for (Service service : snapshot) {
+                    if (service.thread != null) {
+                        LockSupport.unpark(service.thread);
+                    }
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean clean = true;
+        for (Service service : snapshot) {
+            Thread thread = service.thread;
+            if (thread == null) {
+                continue;
+            }
+            long remaining = service.drainDeadlineNanos - (System.nanoTime() - start);
+            try {
+                if (remaining > 0) {
+                    thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+                }
+                if (thread.isAlive()) {
+                    clean = false;
+                    service.missedDeadline = true;
+                    thread.interrupt();
+                    thread.join(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return clean;
+    }
+
+    public List<Status> status() {
+        List<Service> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(services);
+        }
+        List<Status> result = new ArrayList<>(snapshot.size());
+        long now = System.nanoTime();
+        for (Service service : snapshot) {
+            Thread thread = service.thread;
+            long cpu = service.finalCpuNanos;
+            if (thread != null && thread.isAlive()) {
+                cpu = Math.max(cpu, threadBean.getThreadCpuTime(thread.threadId()));
+            }
+            long sinceHeartbeat = service.lastHeartbeatNanos == 0 ? -1 : now - service.lastHeartbeatNanos;
+            result.add(new Status(service.name, service.state, thread != null && thread.isAlive(),
+                    service.lagNanos, sinceHeartbeat, Math.max(0, cpu), service.missedDeadline, service.failure));
+        }
+        return result;
+    }
+
+    public interface ServiceContext {
+        String name();
+
+        boolean isStopping();
+
+        // Long-running workers call this once per unit of work so lag and liveness stay current
+        void heartbeat();
+    }
+
+    private final class Service implements ServiceContext {
+        final String name;
+        final long drainDeadlineNanos;
+        Worker body;
+        volatile Thread thread;
+        volatile State state = State.NEW;
+        volatile long lagNanos;
+        volatile long lastHeartbeatNanos;
+        volatile long finalCpuNanos;
+        volatile boolean missedDeadline;
+        volatile Throwable failure;
+
+        Service(String name, long drainDeadlineNanos) {
+            this.name = name;
+            this.drainDeadlineNanos = drainDeadlineNanos;
+        }
+
+        void start() {
+            thread = new Thread(this::runBody, name);
+            state = State.RUNNING;
+            thread.start();
+        }
+
+        private void runBody() {
+            try {
+                body.run(this);
+                state = State.STOPPED;
+            } catch (InterruptedException e) {
+                state = State.STOPPED;
+            } catch (Throwable t) {
+                failure = t;
+                state = State.FAILED;
+            } finally {
+                finalCpuNanos = threadBean.getCurrentThreadCpuTime();
+            }
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isStopping() {
+            if (stopping && state == State.RUNNING) {
+                state = State.DRAINING;
+            }
+            return stopping;
+        }
+
+        @Override
+        public void heartbeat() {
+            lastHeartbeatNanos = System.nanoTime();
+        }
+    }
+
+    // lagNanos is how late the last periodic tick started; long-running services report heartbeat age instead
+    public static final class Status {
+        public final String name;
+        public final State state;
+        public final boolean alive;
+        public final long lagNanos;
+        public final long sinceHeartbeatNanos;
+        public final long cpuNanos;
+        public final boolean missedDeadline;
+        public final Throwable failure;
+
+        Status(String name, State state, boolean alive, long lagNanos, long sinceHeartbeatNanos,
+               long cpuNanos, boolean missedDeadline, Throwable failure) {
+            this.name = name;
+            this.state = state;
+            this.alive = alive;
+            this.lagNanos = lagNanos;
+            this.sinceHeartbeatNanos = sinceHeartbeatNanos;
+            this.cpuNanos = cpuNanos;
+            this.missedDeadline = missedDeadline;
+            this.failure = failure;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-14s %-9s alive=%-5s lag=%7.2fms heartbeat=%7.2fms ago cpu=%7.2fms%s%s",
+                    name, state, alive, lagNanos / 1e6, sinceHeartbeatNanos / 1e6, cpuNanos / 1e6,
+                    missedDeadline ? " MISSED-DEADLINE" : "",
+                    failure != null ? " failure=" + failure : "");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package threads;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BackgroundServicesDemo {
+
+    private static final ConcurrentLinkedQueue<Integer> buffer = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong produced = new AtomicLong();
+    private static final AtomicLong flushed = new AtomicLong();
+    private static final AtomicLong compacted = new AtomicLong();
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Managed Background Services Demo ===\n");
+
+        BackgroundServiceRegistry registry = new BackgroundServiceRegistry();
+
+        registry.registerPeriodic("flusher", 200, TimeUnit.MILLISECONDS,
+                BackgroundServicesDemo::flushBatch,
+                () -> {
+                    int drained = flushBatch();
+                    System.out.println("flusher drained " + drained + " in-flight events on shutdown");
+                },
+                1, TimeUnit.SECONDS);
+
+        registry.registerLongRunning("compactor", context -> {
+            while (!context.isStopping()) {
+                // One compaction unit; always finished before checking for shutdown again
+                Thread.sleep(50);
+                compacted.incrementAndGet();
+                context.heartbeat();
+            }
+        }, 500, TimeUnit.MILLISECONDS);
+
+        registry.registerLongRunning("stuck-indexer", context -> {
+            while (true) {
+                // Ignores isStopping(), so only its deadline's interrupt stops it
+                Thread.sleep(1000);
+                context.heartbeat();
+            }
+        }, 300, TimeUnit.MILLISECONDS);
+
+        registry.start();
+        registry.installShutdownHook();
+
+        System.out.println("1. Producing events for 1 second:");
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (System.nanoTime() < end) {
+            buffer.add((int) produced.incrementAndGet());
+            Thread.sleep(1);
+        }
+        for (BackgroundServiceRegistry.Status status : registry.status()) {
+            System.out.println("   " + status);
+        }
+        System.out.println();
+
+        System.out.println("2. Coordinated drain (the shutdown hook would do the same on JVM exit):");
+        long start = System.nanoTime();
+        boolean clean = registry.shutdown();
+        System.out.printf("   Drain took %.0f ms, all services within deadline: %s%n",
+                (System.nanoTime() - start) / 1e6, clean);
+        for (BackgroundServiceRegistry.Status status : registry.status()) {
+            System.out.println("   " + status);
+        }
+        System.out.println();
+
+        System.out.println("Events produced: " + produced.get() + ", flushed: " + flushed.get()
+                + ", lost: " + (produced.get() - flushed.get()));
+        System.out.println("Compaction units completed: " + compacted.get());
+        System.out.println("Background services demo completed!");
+    }
+
+    private static int flushBatch() {
+        int count = 0;
+        while (buffer.poll() != null) {
+            count++;
+        }
+        flushed.addAndGet(count);
+        return count;
+    }
+}
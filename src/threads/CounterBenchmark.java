@@ -0,0 +1,275 @@
+package threads;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CounterBenchmark {
+
+    // 128 bytes between hot slots covers adjacent-line prefetching on x86
+    private static final int PADDING = 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Shared Counter Benchmark ===\n");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(2, cores);
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        System.out.println("Available cores: " + cores + ", measuring " + millis + " ms per run\n");
+
+        System.out.printf("%-26s %8s %16s %12s %10s%n", "counter", "threads", "ops/s", "efficiency", "lost");
+        for (CounterFactory factory : factories()) {
+            double singleThreaded = 0;
+            for (int threads : threadCounts) {
+                Counter counter = factory.create(threads);
+                measure(counter, threads, millis / 2);
+                counter = factory.create(threads);
+                Run run = measure(counter, threads, millis);
+
+                double opsPerSecond = run.operations / (run.elapsedNanos / 1e9);
+                if (threads == 1) {
+                    singleThreaded = opsPerSecond;
+                }
+                // Threads beyond the core count cannot add throughput, so scale against min(threads, cores)
+                double efficiency = opsPerSecond / (singleThreaded * Math.min(threads, cores));
+                System.out.printf("%-26s %8d %16.0f %11.1f%% %10d%n",
+                        counter.name(), threads, opsPerSecond, efficiency * 100, run.operations - run.counted);
+            }
+        }
+
+        System.out.println();
+        System.out.println("Efficiency compares throughput to a perfect linear speedup of the 1-thread run.");
+        System.out.println("Compare 'per-thread (unpadded)' to 'per-thread (padded)' for the cost of false sharing.");
+        System.out.println("Counter benchmark completed!");
+    }
+
+    static List<CounterFactory> factories() {
+        List<CounterFactory> factories = new ArrayList<>();
+        factories.add(threads -> new SynchronizedCounter());
+        factories.add(threads -> new AtomicCounter());
+        factories.add(threads -> new VarHandleCounter());
+        factories.add(threads -> new LongAdderCounter());
+        factories.add(threads -> new PerThreadCounter(threads, 1));
+        factories.add(threads -> new PerThreadCounter(threads, PADDING));
+        factories.add(threads -> new StripedCounter(nextPowerOfTwo(threads)));
+        return factories;
+    }
+
+    static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    static Run measure(Counter counter, int threads, long millis) throws InterruptedException {
+        Control control = new Control();
+        long[] perThread = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            workers[i] = new Thread(() -> {
+                while (!control.started) {
+                    Thread.onSpinWait();
+                }
+                long operations = 0;
+                while (!control.stopped) {
+                    counter.increment(index);
+                    operations++;
+                }
+                perThread[index] = operations;
+            }, "Counter-" + i);
+            workers[i].start();
+        }
+
+        long start = System.nanoTime();
+        control.started = true;
+        Thread.sleep(millis);
+        control.stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long operations = 0;
+        for (long count : perThread) {
+            operations += count;
+        }
+        return new Run(operations, counter.sum(), elapsed);
+    }
+
+    static final class Control {
+        volatile boolean started;
+        volatile boolean stopped;
+    }
+
+    static final class Run {
+        final long operations;
+        final long counted;
+        final long elapsedNanos;
+
+        Run(long operations, long counted, long elapsedNanos) {
+            this.operations = operations;
+            this.counted = counted;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    interface CounterFactory {
+        Counter create(int threads);
+    }
+
+    interface Counter {
+        String name();
+
+        void increment(int threadIndex);
+
+        long sum();
+    }
+
+    // Same lock-around-increment approach as RaceConditionDemo.demonstrateSafeAccess()
+    static final class SynchronizedCounter implements Counter {
+        private long value;
+
+        public String name() {
+            return "synchronized";
+        }
+
+        public void increment(int threadIndex) {
+            synchronized (this) {
+                value++;
+            }
+        }
+
+        public synchronized long sum() {
+            return value;
+        }
+    }
+
+    static final class AtomicCounter implements Counter {
+        private final AtomicInteger value = new AtomicInteger();
+
+        public String name() {
+            return "AtomicInteger";
+        }
+
+        public void increment(int threadIndex) {
+            value.incrementAndGet();
+        }
+
+        public long sum() {
+            return value.get();
+        }
+    }
+
+    static final class VarHandleCounter implements Counter {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(VarHandleCounter.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long value;
+
+        public String name() {
+            return "VarHandle getAndAdd";
+        }
+
+        public void increment(int threadIndex) {
+            VALUE.getAndAdd(this, 1L);
+        }
+
+        public long sum() {
+            return value;
+        }
+    }
+
+    static final class LongAdderCounter implements Counter {
+        private final LongAdder value = new LongAdder();
+
+        public String name() {
+            return "LongAdder";
+        }
+
+        public void increment(int threadIndex) {
+            value.increment();
+        }
+
+        public long sum() {
+            return value.sum();
+        }
+    }
+
+    /*
+     * Every thread owns one slot and is the only writer, so an opaque
+     * read-increment-write is enough; sum() reads all slots. With a stride of 1
+     * neighbouring slots share a cache line and the threads falsely share it.
+     */
+    static final class PerThreadCounter implements Counter {
+        private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private final long[] slots;
+        private final int stride;
+
+        PerThreadCounter(int threads, int stride) {
+            this.stride = stride;
+            this.slots = new long[(threads + 1) * stride];
+        }
+
+        public String name() {
+            return stride > 1 ? "per-thread (padded)" : "per-thread (unpadded)";
+        }
+
+        public void increment(int threadIndex) {
+            int index = (threadIndex + 1) * stride;
+            SLOTS.setOpaque(slots, index, (long) SLOTS.getOpaque(slots, index) + 1);
+        }
+
+        public long sum() {
+            long total = 0;
+            for (int i = stride; i < slots.length; i += stride) {
+                total += (long) SLOTS.getVolatile(slots, i);
+            }
+            return total;
+        }
+    }
+
+    // Fixed number of padded atomic stripes shared by hashing the thread onto them
+    static final class StripedCounter implements Counter {
+        private final AtomicLongArray stripes;
+        private final int mask;
+
+        StripedCounter(int stripeCount) {
+            this.mask = stripeCount - 1;
+            this.stripes = new AtomicLongArray((stripeCount + 1) * PADDING);
+        }
+
+        public String name() {
+            return "striped (" + (mask + 1) + " stripes)";
+        }
+
+        public void increment(int threadIndex) {
+            stripes.getAndIncrement(((threadIndex & mask) + 1) * PADDING);
+        }
+
+        public long sum() {
+            long total = 0;
+            for (int i = 1; i <= mask + 1; i++) {
+                total += stripes.get(i * PADDING);
+            }
+            return total;
+        }
+    }
+}
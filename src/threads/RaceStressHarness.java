@@ -0,0 +1,376 @@
+package threads;
+
+import java.lang.management.ManagementFactory;
+
+public class RaceStressHarness {
+
+    private static final int BATCH_SIZE = 1024;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Race Condition Stress Harness ===\n");
+
+        long iterations = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        System.out.println("Iterations per scenario: " + iterations + " (batches of " + BATCH_SIZE + ")\n");
+
+        run(new UnsafeCounter(), iterations);
+        run(new SynchronizedCounter(), iterations);
+        run(new UnsafeBankAccount(), iterations);
+        run(new SynchronizedBankAccount(), iterations);
+
+        System.out.println("Stress harness completed!");
+    }
+
+    static void run(Scenario<?> scenario, long iterations) throws InterruptedException {
+        Result result = new Harness<>(scenario).run(iterations);
+        result.print();
+    }
+
+    /*
+     * One scenario is two actors racing on the same fresh state plus an arbiter
+     * that classifies the state once both actors are done. Outcomes are small
+     * integers so tallying is a plain array increment.
+     */
+    abstract static class Scenario<S> {
+        final String name;
+        final String[] outcomes;
+        final boolean[] forbidden;
+
+        Scenario(String name, String[] outcomes, boolean[] forbidden) {
+            this.name = name;
+            this.outcomes = outcomes;
+            this.forbidden = forbidden;
+        }
+
+        abstract S newState();
+
+        abstract void reset(S state);
+
+        abstract void actor1(S state);
+
+        abstract void actor2(S state);
+
+        abstract int arbiter(S state);
+    }
+
+    static final class Counter {
+        int value;
+    }
+
+    static final class UnsafeCounter extends Scenario<Counter> {
+        UnsafeCounter() {
+            super("counter++ (unsynchronized)",
+                    new String[]{"1 (lost update)", "2 (both increments)"},
+                    new boolean[]{true, false});
+        }
+
+        Counter newState() {
+            return new Counter();
+        }
+
+        void reset(Counter state) {
+            state.value = 0;
+        }
+
+        void actor1(Counter state) {
+            state.value++;
+        }
+
+        void actor2(Counter state) {
+            state.value++;
+        }
+
+        int arbiter(Counter state) {
+            return state.value == 2 ? 1 : 0;
+        }
+    }
+
+    static final class SynchronizedCounter extends Scenario<Counter> {
+        SynchronizedCounter() {
+            super("counter++ (synchronized)",
+                    new String[]{"1 (lost update)", "2 (both increments)"},
+                    new boolean[]{true, false});
+        }
+
+        Counter newState() {
+            return new Counter();
+        }
+
+        void reset(Counter state) {
+            state.value = 0;
+        }
+
+        void actor1(Counter state) {
+            synchronized (state) {
+                state.value++;
+            }
+        }
+
+        void actor2(Counter state) {
+            synchronized (state) {
+                state.value++;
+            }
+        }
+
+        int arbiter(Counter state) {
+            return state.value == 2 ? 1 : 0;
+        }
+    }
+
+    // Same shape as RaceConditionDemo's BankAccount, in cents so outcomes are exact
+    static final class Account {
+        int balance;
+        boolean withdrew1;
+        boolean withdrew2;
+    }
+
+    static final int INITIAL_BALANCE = 100;
+    static final int WITHDRAW_1 = 75;
+    static final int WITHDRAW_2 = 50;
+
+    static final String[] ACCOUNT_OUTCOMES = {
+            "only user1 withdrew, balance 25",
+            "only user2 withdrew, balance 50",
+            "both withdrew, balance -25 (overdrawn)",
+            "both withdrew, balance 25 (lost update)",
+            "both withdrew, balance 50 (lost update)",
+            "other"
+    };
+
+    static final boolean[] ACCOUNT_FORBIDDEN = {false, false, true, true, true, true};
+
+    static int classify(Account account) {
+        if (account.withdrew1 && !account.withdrew2 && account.balance == INITIAL_BALANCE - WITHDRAW_1) {
+            return 0;
+        }
+        if (!account.withdrew1 && account.withdrew2 && account.balance == INITIAL_BALANCE - WITHDRAW_2) {
+            return 1;
+        }
+        if (account.withdrew1 && account.withdrew2) {
+            if (account.balance == INITIAL_BALANCE - WITHDRAW_1 - WITHDRAW_2) {
+                return 2;
+            }
+            if (account.balance == INITIAL_BALANCE - WITHDRAW_1) {
+                return 3;
+            }
+            if (account.balance == INITIAL_BALANCE - WITHDRAW_2) {
+                return 4;
+            }
+        }
+        return 5;
+    }
+
+    static final class UnsafeBankAccount extends Scenario<Account> {
+        UnsafeBankAccount() {
+            super("BankAccount.withdraw (unsynchronized)", ACCOUNT_OUTCOMES, ACCOUNT_FORBIDDEN);
+        }
+
+        Account newState() {
+            return new Account();
+        }
+
+        void reset(Account state) {
+            state.balance = INITIAL_BALANCE;
+            state.withdrew1 = false;
+            state.withdrew2 = false;
+        }
+
+        void actor1(Account state) {
+            if (state.balance >= WITHDRAW_1) {
+                state.balance -= WITHDRAW_1;
+                state.withdrew1 = true;
+            }
+        }
+
+        void actor2(Account state) {
+            if (state.balance >= WITHDRAW_2) {
+                state.balance -= WITHDRAW_2;
+                state.withdrew2 = true;
+            }
+        }
+
+        int arbiter(Account state) {
+            return classify(state);
+        }
+    }
+
+    static final class SynchronizedBankAccount extends Scenario<Account> {
+        SynchronizedBankAccount() {
+            super("BankAccount.withdraw (synchronized)", ACCOUNT_OUTCOMES, ACCOUNT_FORBIDDEN);
+        }
+
+        Account newState() {
+            return new Account();
+        }
+
+        void reset(Account state) {
+            state.balance = INITIAL_BALANCE;
+            state.withdrew1 = false;
+            state.withdrew2 = false;
+        }
+
+        void actor1(Account state) {
+            synchronized (state) {
+                if (state.balance >= WITHDRAW_1) {
+                    state.balance -= WITHDRAW_1;
+                    state.withdrew1 = true;
+                }
+            }
+        }
+
+        void actor2(Account state) {
+            synchronized (state) {
+                if (state.balance >= WITHDRAW_2) {
+                    state.balance -= WITHDRAW_2;
+                    state.withdrew2 = true;
+                }
+            }
+        }
+
+        int arbiter(Account state) {
+            return classify(state);
+        }
+    }
+
+    /*
+     * The coordinator resets a batch of states and bumps the epoch; both actor
+     * threads spin on the epoch, sweep the batch and report back. States are
+     * allocated once up front and reset in place, so the measured loop does not
+     * allocate.
+     */
+    static final class Harness<S> {
+        private final Scenario<S> scenario;
+        private final Object[] states = new Object[BATCH_SIZE];
+        private final long[] tally;
+
+        private volatile long epoch;
+        private volatile long done1;
+        private volatile long done2;
+        private volatile boolean stopped;
+
+        Harness(Scenario<S> scenario) {
+            this.scenario = scenario;
+            this.tally = new long[scenario.outcomes.length];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                states[i] = scenario.newState();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private S state(int index) {
+            return (S) states[index];
+        }
+
+        Result run(long iterations) throws InterruptedException {
+            Thread actor1 = new Thread(() -> actorLoop(true), "Actor-1");
+            Thread actor2 = new Thread(() -> actorLoop(false), "Actor-2");
+            actor1.start();
+            actor2.start();
+
+            com.sun.management.ThreadMXBean threadBean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long[] threadIds = {Thread.currentThread().threadId(), actor1.threadId(), actor2.threadId()};
+            long allocatedBefore = sum(threadBean.getThreadAllocatedBytes(threadIds));
+
+            long start = System.nanoTime();
+            long batches = (iterations + BATCH_SIZE - 1) / BATCH_SIZE;
+            for (long batch = 1; batch <= batches; batch++) {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    scenario.reset(state(i));
+                }
+                epoch = batch;
+                while (done1 != batch || done2 != batch) {
+                    spinWait();
+                }
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    tally[scenario.arbiter(state(i))]++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long allocatedAfter = sum(threadBean.getThreadAllocatedBytes(threadIds));
+            stopped = true;
+            actor1.join();
+            actor2.join();
+
+            return new Result(scenario, tally, batches * BATCH_SIZE, elapsed, allocatedAfter - allocatedBefore);
+        }
+
+        private void actorLoop(boolean first) {
+            long seen = 0;
+            while (true) {
+                long current;
+                while ((current = epoch) == seen) {
+                    if (stopped) {
+                        return;
+                    }
+                    spinWait();
+                }
+                seen = current;
+                if (first) {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        scenario.actor1(state(i));
+                    }
+                    done1 = current;
+                } else {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        scenario.actor2(state(i));
+                    }
+                    done2 = current;
+                }
+            }
+        }
+
+        // Spin briefly, then yield so the harness still makes progress on few cores
+        private static void spinWait() {
+            for (int i = 0; i < 64; i++) {
+                Thread.onSpinWait();
+            }
+            Thread.yield();
+        }
+
+        private static long sum(long[] values) {
+            long total = 0;
+            for (long value : values) {
+                total += Math.max(0, value);
+            }
+            return total;
+        }
+    }
+
+    static final class Result {
+        final Scenario<?> scenario;
+        final long[] tally;
+        final long iterations;
+        final long elapsedNanos;
+        final long allocatedBytes;
+
+        Result(Scenario<?> scenario, long[] tally, long iterations, long elapsedNanos, long allocatedBytes) {
+            this.scenario = scenario;
+            this.tally = tally;
+            this.iterations = iterations;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        void print() {
+            System.out.println(scenario.name + ":");
+            long forbidden = 0;
+            for (int i = 0; i < tally.length; i++) {
+                if (tally[i] == 0 && scenario.outcomes[i].equals("other")) {
+                    continue;
+                }
+                String marker = scenario.forbidden[i] ? "FORBIDDEN " : "acceptable";
+                System.out.printf("  %-42s %s %12d (%.4f%%)%n",
+                        scenario.outcomes[i], marker, tally[i], 100.0 * tally[i] / iterations);
+                if (scenario.forbidden[i]) {
+                    forbidden += tally[i];
+                }
+            }
+            System.out.printf("  %d iterations in %.1f ms (%.0f iterations/s), allocated %d bytes during run%n",
+                    iterations, elapsedNanos / 1e6, iterations / (elapsedNanos / 1e9), allocatedBytes);
+            System.out.println("  Verdict: " + (forbidden == 0 ? "no forbidden outcome observed"
+                    : "RACE DETECTED in " + forbidden + " iterations"));
+            System.out.println();
+        }
+    }
+}
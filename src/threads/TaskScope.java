@@ -0,0 +1,274 @@
+package threads;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Forks subtasks on their own threads and ties their lifetime to the scope.
+ * Under SHUTDOWN_ON_FAILURE the first failing subtask interrupts all of its
+ * siblings; under SHUTDOWN_ON_SUCCESS the first successful one does. close()
+ * always waits for every forked thread, so no subtask outlives its scope.
+ * fork, join and close must be called from the thread that opened the scope.
+ */
+public class TaskScope<T> implements AutoCloseable {
+
+    public enum Policy {
+        SHUTDOWN_ON_FAILURE,
+        SHUTDOWN_ON_SUCCESS
+    }
+
+    public enum State {
+        UNAVAILABLE,
+        SUCCESS,
+        FAILED
+    }
+
+    private final Policy policy;
+    private final ThreadFactory threadFactory;
+    private final Thread owner = Thread.currentThread();
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private int running;
+    private boolean shutdown;
+    private boolean closed;
+    private Subtask<T> firstSuccess;
+    private Throwable firstFailure;
+
+    public TaskScope(Policy policy, ThreadFactory threadFactory) {
+        this.policy = policy;
+        this.threadFactory = threadFactory;
+    }
+
+    public static <T> TaskScope<T> shutdownOnFailure(ThreadFactory threadFactory) {
+        return new TaskScope<>(Policy.SHUTDOWN_ON_FAILURE, threadFactory);
+    }
+
+    public static <T> TaskScope<T> shutdownOnSuccess(ThreadFactory threadFactory) {
+        return new TaskScope<>(Policy.SHUTDOWN_ON_SUCCESS, threadFactory);
+    }
+
+    public Subtask<T> fork(Callable<? extends T> task) {
+        ensureOwner();
+        Subtask<T> subtask = new Subtask<>(task);
+        Thread thread = threadFactory.newThread(() -> run(subtask));
+        if (thread == null) {
+            throw new IllegalStateException("Thread factory refused to create a thread");
+        }
+        // Registered and started under the lock, so a sibling's shutdownLocked() either sees this
+        // thread and interrupts it, or has already run and the subtask is never started
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Scope is closed");
+            }
+            if (shutdown) {
+                return subtask;
+            }
+            running++;
+            threads.add(thread);
+            try {
+                thread.start();
+            } catch (RuntimeException | Error e) {
+                threads.remove(thread);
+                running--;
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return subtask;
+    }
+
+    private void run(Subtask<T> subtask) {
+        try {
+            subtask.result = subtask.task.call();
+            subtask.state = State.SUCCESS;
+        } catch (Throwable t) {
+            subtask.exception = t;
+            subtask.state = State.FAILED;
+        } finally {
+            threads.remove(Thread.currentThread());
+            finished(subtask);
+        }
+    }
+
+    private void finished(Subtask<T> subtask) {
+        lock.lock();
+        try {
+            if (!shutdown) {
+                if (subtask.state == State.FAILED && firstFailure == null) {
+                    firstFailure = subtask.exception;
+                    if (policy == Policy.SHUTDOWN_ON_FAILURE) {
+                        shutdownLocked();
+                    }
+                } else if (subtask.state == State.SUCCESS && firstSuccess == null
+                        && policy == Policy.SHUTDOWN_ON_SUCCESS) {
+                    firstSuccess = subtask;
+                    shutdownLocked();
+                }
+            }
+            running--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits until every subtask finished or the policy shut the scope down
+    public TaskScope<T> join() throws InterruptedException {
+        ensureOwner();
+        lock.lock();
+        try {
+            while (running > 0 && !shutdown) {
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    public TaskScope<T> join(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        ensureOwner();
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (running > 0 && !shutdown) {
+                if (remaining <= 0) {
+                    shutdownLocked();
+                    throw new TimeoutException("Subtasks did not finish within " + timeout + " " + unit);
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdownLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void shutdownLocked() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (Thread thread : threads) {
+            if (thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+        changed.signalAll();
+    }
+
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void throwIfFailed() throws ExecutionException {
+        ensureOwner();
+        lock.lock();
+        try {
+            if (firstFailure != null) {
+                throw new ExecutionException(firstFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T result() throws ExecutionException {
+        ensureOwner();
+        lock.lock();
+        try {
+            if (firstSuccess != null) {
+                return firstSuccess.result;
+            }
+            if (firstFailure != null) {
+                throw new ExecutionException(firstFailure);
+            }
+            throw new IllegalStateException("No subtask completed successfully");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        ensureOwner();
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            closed = true;
+            shutdownLocked();
+            while (running > 0) {
+                try {
+                    changed.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Scope is owned by " + owner.getName());
+        }
+    }
+
+    public static final class Subtask<T> {
+        private final Callable<? extends T> task;
+        private volatile State state = State.UNAVAILABLE;
+        private volatile T result;
+        private volatile Throwable exception;
+
+        Subtask(Callable<? extends T> task) {
+            this.task = task;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        public T get() {
+            if (state != State.SUCCESS) {
+                throw new IllegalStateException("Subtask state is " + state);
+            }
+            return result;
+        }
+
+        public Throwable exception() {
+            if (state != State.FAILED) {
+                throw new IllegalStateException("Subtask state is " + state);
+            }
+            return exception;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package threads;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TaskScopeBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Task Scope Fan-out Benchmark ===\n");
+
+        int fanOut = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int unitsPerTask = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int failAfterUnits = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        System.out.println(fanOut + " subtasks x " + unitsPerTask + " work units of 1 ms; "
+                + "one subtask fails after " + failAfterUnits + " units\n");
+        System.out.printf("%-10s %-22s %14s %14s %10s%n", "threads", "coordination", "time to result", "units run", "wasted");
+
+        for (boolean virtual : new boolean[]{false, true}) {
+            ThreadFactory factory = virtual ? Thread.ofVirtual().factory() : Thread.ofPlatform().factory();
+            String kind = virtual ? "virtual" : "platform";
+            runManual(kind, factory, fanOut, unitsPerTask, failAfterUnits);
+            runScoped(kind, factory, fanOut, unitsPerTask, failAfterUnits);
+        }
+
+        System.out.println();
+        System.out.println("'wasted' counts units executed after the failure made the overall result useless.\n");
+
+        System.out.println("First success among " + fanOut + " replicas (replica i needs " + failAfterUnits + " + i units):");
+        runFirstSuccess(Thread.ofVirtual().factory(), fanOut, failAfterUnits);
+        System.out.println();
+        System.out.println("Task scope benchmark completed!");
+    }
+
+    // The ThreadCoordination approach: start everything, join everything, then look for failures
+    static void runManual(String kind, ThreadFactory factory, int fanOut, int units, int failAfter)
+            throws InterruptedException {
+        LongAdder executed = new LongAdder();
+        Throwable[] failures = new Throwable[fanOut];
+        Thread[] threads = new Thread[fanOut];
+        long start = System.nanoTime();
+        for (int i = 0; i < fanOut; i++) {
+            final int index = i;
+            threads[i] = factory.newThread(() -> {
+                try {
+                    work(index == 0 ? failAfter : units, index == 0, executed);
+                } catch (Exception e) {
+                    failures[index] = e;
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        boolean failed = false;
+        for (Throwable failure : failures) {
+            failed |= failure != null;
+        }
+        report(kind, "manual join", failed, elapsed, executed.sum(), fanOut, failAfter);
+    }
+
+    static void runScoped(String kind, ThreadFactory factory, int fanOut, int units, int failAfter)
+            throws InterruptedException {
+        LongAdder executed = new LongAdder();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try (TaskScope<Void> scope = TaskScope.shutdownOnFailure(factory)) {
+            for (int i = 0; i < fanOut; i++) {
+                final int index = i;
+                scope.fork(() -> {
+                    work(index == 0 ? failAfter : units, index == 0, executed);
+                    return null;
+                });
+            }
+            scope.join();
+            scope.throwIfFailed();
+        } catch (ExecutionException e) {
+            failed = true;
+        }
+        long elapsed = System.nanoTime() - start;
+        report(kind, "TaskScope (on failure)", failed, elapsed, executed.sum(), fanOut, failAfter);
+    }
+
+    static void runFirstSuccess(ThreadFactory factory, int fanOut, int baseUnits) throws InterruptedException {
+        LongAdder executed = new LongAdder();
+        long start = System.nanoTime();
+        try (TaskScope<Integer> scope = TaskScope.shutdownOnSuccess(factory)) {
+            for (int i = 0; i < fanOut; i++) {
+                final int replica = i;
+                scope.fork(() -> {
+                    work(baseUnits + replica, false, executed);
+                    return replica;
+                });
+            }
+            scope.join();
+            int winner = scope.result();
+            System.out.printf("  TaskScope (on success): replica %d won after %.1f ms, %d units run "
+                            + "(running every replica to completion needs %d)%n",
+                    winner, (System.nanoTime() - start) / 1e6, executed.sum(),
+                    (long) fanOut * baseUnits + (long) fanOut * (fanOut - 1) / 2);
+        } catch (ExecutionException e) {
+            System.out.println("  All replicas failed: " + e.getCause());
+        }
+    }
+
+    static void work(int units, boolean fail, LongAdder executed) throws Exception {
+        for (int i = 0; i < units; i++) {
+            Thread.sleep(1);
+            executed.increment();
+        }
+        if (fail) {
+            throw new IllegalStateException("Subtask failed");
+        }
+    }
+
+    static void report(String kind, String mode, boolean failed, long elapsedNanos, long executed,
+                       int fanOut, int failAfter) {
+        // Work that could have happened before the failure: every subtask running alongside the failing one
+        long necessary = (long) fanOut * failAfter;
+        long wasted = Math.max(0, executed - necessary);
+        System.out.printf("%-10s %-22s %11.1f ms %14d %9.1f%%%n",
+                kind, mode, elapsedNanos / 1e6, executed, 100.0 * wasted / Math.max(1, executed));
+        if (!failed) {
+            System.out.println("  (failure was not reported!)");
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package threads;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class ThreadCoordination {
 
     public static void main(String[] args) {
@@ -8,6 +11,7 @@ public class ThreadCoordination {
         demonstrateJoin();
         demonstrateSleep();
         demonstrateInterrupt();
+        demonstrateTaskScope();
     }
 
     private static void demonstrateJoin() {
@@ -97,4 +101,39 @@ public class ThreadCoordination {
 
         System.out.println();
     }
+
+    private static void demonstrateTaskScope() {
+        System.out.println("4. TaskScope - Cancelling siblings when one subtask fails:");
+
+        // Reported after close(), which waits for every subtask thread, so the output order is fixed
+        AtomicBoolean slowCancelled = new AtomicBoolean();
+        TaskScope.Subtask<String> slow = null;
+        try (TaskScope<String> scope = TaskScope.shutdownOnFailure(Thread.ofVirtual().factory())) {
+            slow = scope.fork(() -> {
+                try {
+                    Thread.sleep(5000);
+                    return "slow result";
+                } catch (InterruptedException e) {
+                    slowCancelled.set(true);
+                    throw e;
+                }
+            });
+            scope.fork(() -> {
+                Thread.sleep(500);
+                throw new IllegalStateException("lookup failed");
+            });
+
+            scope.join();
+            scope.throwIfFailed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Scope failed fast with: " + e.getCause().getMessage());
+        }
+        if (slow != null) {
+            System.out.println("Slow subtask state: " + slow.state() + ", cancelled by the scope: " + slowCancelled.get());
+        }
+
+        System.out.println();
+    }
 }
@@ -0,0 +1,242 @@
+package threads;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ThreadCreationBenchmark {
+
+    enum Mode {
+        PLATFORM_THREAD("new Thread"),
+        VIRTUAL_THREAD("Thread.ofVirtual()"),
+        FIXED_POOL("pre-started pool"),
+        FORK_JOIN_POOL("ForkJoinPool");
+
+        final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Thread Creation and Startup Benchmark ===\n");
+
+        int[] taskCounts = args.length > 0 ? parseCounts(args[0]) : new int[]{10_000, 100_000, 1_000_000};
+        int liveThreads = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int poolSize = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("1. Creation-to-first-instruction latency and spawn rate:");
+        System.out.println("   (tasks are spawned back to back, so latency includes waiting behind the burst;");
+        System.out.println("    pools use " + poolSize + " threads, started before measuring)\n");
+        System.out.printf("   %-20s %10s %12s %10s %10s %10s %10s %10s%n",
+                "mode", "tasks", "tasks/s", "p50 μs", "p90 μs", "p99 μs", "p99.9 μs", "max μs");
+        for (Mode mode : Mode.values()) {
+            Spawner warmup = Spawner.create(mode, poolSize);
+            runLatency(warmup, Math.min(10_000, taskCounts[0]));
+            warmup.shutdown();
+
+            for (int tasks : taskCounts) {
+                Spawner spawner = Spawner.create(mode, poolSize);
+                LatencyRun run = runLatency(spawner, tasks);
+                spawner.shutdown();
+                run.print(mode);
+            }
+        }
+        System.out.println();
+
+        System.out.println("2. Memory per live blocked thread (" + liveThreads + " threads):");
+        measureMemory(Mode.PLATFORM_THREAD, liveThreads);
+        measureMemory(Mode.VIRTUAL_THREAD, liveThreads);
+        System.out.println("   Pools keep " + poolSize + " threads regardless of task count, so blocked tasks "
+                + "queue up instead of costing a thread each.");
+        System.out.println();
+
+        System.out.println("Thread creation benchmark completed!");
+    }
+
+    static LatencyRun runLatency(Spawner spawner, int tasks) throws InterruptedException {
+        long[] latencies = new long[tasks];
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            final int index = i;
+            final long created = System.nanoTime();
+            spawner.spawn(() -> {
+                latencies[index] = System.nanoTime() - created;
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new LatencyRun(tasks, latencies, elapsed);
+    }
+
+    static void measureMemory(Mode mode, int threads) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] live = new Thread[threads];
+
+        settle();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long rssBefore = residentSetBytes();
+
+        Runnable blocked = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        for (int i = 0; i < threads; i++) {
+            live[i] = mode == Mode.VIRTUAL_THREAD ? Thread.ofVirtual().start(blocked) : startPlatform(blocked);
+        }
+        started.await();
+
+        settle();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        long rssAfter = residentSetBytes();
+
+        release.countDown();
+        for (Thread thread : live) {
+            thread.join();
+        }
+
+        long heapPerThread = (heapAfter - heapBefore) / threads;
+        String rssPerThread = rssBefore < 0 ? "n/a" : ((rssAfter - rssBefore) / threads) + " bytes";
+        System.out.printf("   %-20s heap %8d bytes/thread, resident set %s/thread%n",
+                mode.label, heapPerThread, rssPerThread);
+    }
+
+    static Thread startPlatform(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    static void settle() throws InterruptedException {
+        System.gc();
+        Thread.sleep(100);
+    }
+
+    // VmRSS covers native thread stacks, which the heap numbers do not see
+    static long residentSetBytes() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            List<String> lines = Files.readAllLines(status);
+            for (String line : lines) {
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    static int[] parseCounts(String arg) {
+        String[] parts = arg.split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+
+    abstract static class Spawner {
+        abstract void spawn(Runnable task);
+
+        void shutdown() throws InterruptedException {
+        }
+
+        static Spawner create(Mode mode, int poolSize) {
+            switch (mode) {
+                case PLATFORM_THREAD:
+                    return new Spawner() {
+                        void spawn(Runnable task) {
+                            new Thread(task).start();
+                        }
+                    };
+                case VIRTUAL_THREAD:
+                    return new Spawner() {
+                        void spawn(Runnable task) {
+                            Thread.ofVirtual().start(task);
+                        }
+                    };
+                case FIXED_POOL:
+                    ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(poolSize);
+                    pool.prestartAllCoreThreads();
+                    return new ExecutorSpawner(pool);
+                case FORK_JOIN_POOL:
+                    ForkJoinPool forkJoinPool = new ForkJoinPool(poolSize);
+                    forkJoinPool.execute(() -> { });
+                    return new ExecutorSpawner(forkJoinPool);
+                default:
+                    throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+        }
+    }
+
+    static final class ExecutorSpawner extends Spawner {
+        private final ExecutorService executor;
+
+        ExecutorSpawner(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        void spawn(Runnable task) {
+            executor.execute(task);
+        }
+
+        @Override
+        void shutdown() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    static final class LatencyRun {
+        final int tasks;
+        final long[] sortedLatencies;
+        final long elapsedNanos;
+
+        LatencyRun(int tasks, long[] sortedLatencies, long elapsedNanos) {
+            this.tasks = tasks;
+            this.sortedLatencies = sortedLatencies;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        long percentile(double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        void print(Mode mode) {
+            System.out.printf("   %-20s %10d %12.0f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    mode.label, tasks, tasks / (elapsedNanos / 1e9),
+                    percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3,
+                    percentile(99.9) / 1e3, sortedLatencies[sortedLatencies.length - 1] / 1e3);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package threads;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Periodically snapshots every live platform thread through ThreadMXBean and
+ * aggregates time per thread and state plus sample counts per collapsed stack.
+ * Both tables are capped, anything beyond the caps is folded into an overflow
+ * entry, so memory stays bounded however long the sampler runs.
+ */
+public class ThreadStateSampler {
+
+    private static final Thread.State[] STATES = Thread.State.values();
+    private static final String OVERFLOW_THREAD = "[other threads]";
+    private static final String OVERFLOW_STACK = "[other stacks]";
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final long intervalNanos;
+    private final int maxDepth;
+    private final int maxThreads;
+    private final int maxStacks;
+
+    private final Map<Long, ThreadStats> threads = new HashMap<>();
+    private final Map<String, long[]> stacks = new HashMap<>();
+    private final StringBuilder key = new StringBuilder(256);
+
+    private volatile boolean running;
+    private volatile long samplerCpuNanos;
+    private Thread samplerThread;
+    private long lastSampleNanos;
+    private long samples;
+
+    public ThreadStateSampler(long interval, TimeUnit unit, int maxDepth, int maxThreads, int maxStacks) {
+        this.intervalNanos = unit.toNanos(interval);
+        this.maxDepth = maxDepth;
+        this.maxThreads = maxThreads;
+        this.maxStacks = maxStacks;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        lastSampleNanos = System.nanoTime();
+        samplerThread = new Thread(this::sampleLoop, "ThreadStateSampler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+    }
+
+    public void stop() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = samplerThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+    }
+
+    // CPU time the sampler thread itself has used, the direct cost of sampling
+    public long samplerCpuNanos() {
+        return samplerCpuNanos;
+    }
+
+    private void sampleLoop() {
+        long next = System.nanoTime() + intervalNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            sample();
+            samplerCpuNanos = threadBean.getCurrentThreadCpuTime();
+            next += intervalNanos;
+            if (next < System.nanoTime()) {
+                // Fell behind (e.g. after a long GC pause): skip missed ticks instead of bursting
+                next = System.nanoTime() + intervalNanos;
+            }
+        }
+    }
+
+    synchronized void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - lastSampleNanos;
+        lastSampleNanos = now;
+        samples++;
+
+        long self = Thread.currentThread().threadId();
+        for (ThreadInfo info : threadBean.dumpAllThreads(false, false, maxDepth)) {
+            if (info == null || info.getThreadId() == self) {
+                continue;
+            }
+            Thread.State state = info.getThreadState();
+            threadStats(info).stateNanos[state.ordinal()] += elapsed;
+            stackCount(state, info.getStackTrace())[0]++;
+        }
+    }
+
+    private ThreadStats threadStats(ThreadInfo info) {
+        ThreadStats stats = threads.get(info.getThreadId());
+        if (stats != null) {
+            return stats;
+        }
+        if (threads.size() >= maxThreads) {
+            stats = threads.get(-1L);
+            if (stats == null) {
+                stats = new ThreadStats(OVERFLOW_THREAD);
+                threads.put(-1L, stats);
+            }
+            return stats;
+        }
+        stats = new ThreadStats(info.getThreadName());
+        threads.put(info.getThreadId(), stats);
+        return stats;
+    }
+
+    // Collapsed-stack key: state first, then frames from the outermost caller inwards
+    private long[] stackCount(Thread.State state, StackTraceElement[] frames) {
+        key.setLength(0);
+        key.append(state.name());
+        for (int i = frames.length - 1; i >= 0; i--) {
+            key.append(';').append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+        }
+        String stack = key.toString();
+        long[] count = stacks.get(stack);
+        if (count != null) {
+            return count;
+        }
+        if (stacks.size() >= maxStacks) {
+            stack = state.name() + ";" + OVERFLOW_STACK;
+            count = stacks.get(stack);
+            if (count != null) {
+                return count;
+            }
+        }
+        count = new long[1];
+        stacks.put(stack, count);
+        return count;
+    }
+
+    public synchronized long samples() {
+        return samples;
+    }
+
+    // One line per stack in the format flamegraph.pl and speedscope read: "frame;frame;frame count"
+    public synchronized void writeCollapsed(PrintStream out, int maxLines) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(stacks.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (int i = 0; i < entries.size() && i < maxLines; i++) {
+            out.println(entries.get(i).getKey() + " " + entries.get(i).getValue()[0]);
+        }
+    }
+
+    public synchronized void printThreadSummary(PrintStream out) {
+        out.printf("%-28s", "thread");
+        for (Thread.State state : STATES) {
+            out.printf(" %14s", state);
+        }
+        out.println("   (ms)");
+        for (ThreadStats stats : threads.values()) {
+            out.printf("%-28s", stats.name.length() > 28 ? stats.name.substring(0, 28) : stats.name);
+            for (Thread.State state : STATES) {
+                out.printf(" %14d", TimeUnit.NANOSECONDS.toMillis(stats.stateNanos[state.ordinal()]));
+            }
+            out.println();
+        }
+    }
+
+    static final class ThreadStats {
+        final String name;
+        final long[] stateNanos = new long[STATES.length];
+
+        ThreadStats(String name) {
+            this.name = name;
+        }
+    }
+}
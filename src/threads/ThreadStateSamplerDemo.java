@@ -0,0 +1,153 @@
+package threads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ThreadStateSamplerDemo {
+
+    private static final Object monitor = new Object();
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Thread State Sampler Demo ===\n");
+
+        demonstrateStateBreakdown();
+        measureOverhead(args.length > 0 ? Integer.parseInt(args[0]) : 5);
+    }
+
+    private static void demonstrateStateBreakdown() throws InterruptedException {
+        System.out.println("1. Sampling thread states every 10 ms for 2 seconds:");
+
+        ThreadStateSampler sampler = new ThreadStateSampler(10, TimeUnit.MILLISECONDS, 16, 256, 1024);
+        CountDownLatch stop = new CountDownLatch(1);
+
+        Thread spinner = new Thread(() -> {
+            long x = 0;
+            while (stop.getCount() > 0) {
+                x += System.nanoTime() % 7;
+            }
+            if (x == 42) {
+                System.out.println();
+            }
+        }, "Spinner");
+
+        // Holds the monitor while sleeping, so Blocked spends its time BLOCKED
+        Thread holder = new Thread(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "SleepingHolder");
+
+        Thread blocked = new Thread(() -> {
+            synchronized (monitor) {
+                System.out.println("Blocked thread finally acquired the monitor");
+            }
+        }, "Blocked");
+
+        Thread waiter = new Thread(() -> {
+            try {
+                stop.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Waiter");
+
+        sampler.start();
+        spinner.start();
+        holder.start();
+        Thread.sleep(50);
+        blocked.start();
+        waiter.start();
+
+        holder.join();
+        blocked.join();
+        stop.countDown();
+        spinner.join();
+        waiter.join();
+        sampler.stop();
+
+        System.out.println("Samples taken: " + sampler.samples());
+        System.out.println();
+        sampler.printThreadSummary(System.out);
+        System.out.println();
+        System.out.println("Collapsed stacks (feed to flamegraph.pl), top entries:");
+        sampler.writeCollapsed(System.out, 10);
+        System.out.println();
+    }
+
+    private static void measureOverhead(int rounds) throws InterruptedException {
+        System.out.println("2. Sampler overhead at a 10 ms interval:");
+
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        Thread[] idle = new Thread[32];
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < idle.length; i++) {
+            idle[i] = new Thread(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Idle-" + i);
+            idle[i].start();
+        }
+
+        runWorkload(workers);
+
+        long bestWithout = Long.MAX_VALUE;
+        long bestWith = Long.MAX_VALUE;
+        long samplerCpu = 0;
+        long sampledWall = 0;
+        for (int round = 0; round < rounds; round++) {
+            bestWithout = Math.min(bestWithout, runWorkload(workers));
+
+            ThreadStateSampler sampler = new ThreadStateSampler(10, TimeUnit.MILLISECONDS, 16, 256, 1024);
+            sampler.start();
+            long elapsed = runWorkload(workers);
+            sampler.stop();
+            bestWith = Math.min(bestWith, elapsed);
+            samplerCpu += sampler.samplerCpuNanos();
+            sampledWall += elapsed;
+        }
+        release.countDown();
+        for (Thread thread : idle) {
+            thread.join();
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double slowdown = 100.0 * (bestWith - bestWithout) / bestWithout;
+        double cpuShare = 100.0 * samplerCpu / ((double) sampledWall * cores);
+        System.out.printf("Workload without sampler: %.1f ms (best of %d)%n", bestWithout / 1e6, rounds);
+        System.out.printf("Workload with sampler:    %.1f ms (best of %d)%n", bestWith / 1e6, rounds);
+        System.out.printf("Wall-clock slowdown:      %.2f%%%n", slowdown);
+        System.out.printf("Sampler CPU share:        %.2f%% of %d core(s) with %d+ live threads%n",
+                cpuShare, cores, idle.length + workers);
+        // Slowdown also includes the safepoint pauses dumpAllThreads imposes on the workload
+        System.out.println("Overhead target (< 1%): " + (cpuShare < 1.0 && slowdown < 1.0 ? "met" : "NOT met"));
+        System.out.println("Thread state sampler demo completed!");
+    }
+
+    private static long runWorkload(int workers) throws InterruptedException {
+        Thread[] threads = new Thread[workers];
+        long start = System.nanoTime();
+        for (int i = 0; i < workers; i++) {
+            threads[i] = new Thread(() -> {
+                double x = 1;
+                for (int j = 0; j < 200_000_000; j++) {
+                    x = x * 1.0000001 + 1e-9;
+                }
+                if (x == 0) {
+                    System.out.println(x);
+                }
+            }, "Worker-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+}